@@ -0,0 +1,100 @@
+package com.benchmarks;
+
+import com.alerts.Alert;
+import com.alerts.strategies.AlertStrategy;
+import com.alerts.strategies.BloodPressureStrategy;
+import com.alerts.strategies.HeartRateStrategy;
+import com.alerts.strategies.OxygenSaturationStrategy;
+import com.data_management.MetricRegistry;
+import com.data_management.Patient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures each {@link AlertStrategy}, both the full-history
+ * {@link AlertStrategy#checkAlert} and the per-reading
+ * {@link AlertStrategy#checkRecord}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class AlertStrategyBenchmark {
+    private static final String[] TYPES = {"ECG", "Saturation", "SystolicPressure", "DiastolicPressure", "Cholesterol"};
+
+    @Param({"BloodPressure", "HeartRate", "OxygenSaturation"})
+    public String strategyName;
+
+    @Param({"1000", "100000"})
+    public int recordCount;
+
+    private AlertStrategy strategy;
+    private Patient patient;
+    private long timestamp;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        switch (strategyName) {
+            case "BloodPressure":
+                strategy = new BloodPressureStrategy();
+                break;
+            case "HeartRate":
+                strategy = new HeartRateStrategy();
+                break;
+            case "OxygenSaturation":
+                strategy = new OxygenSaturationStrategy();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown strategy: " + strategyName);
+        }
+
+        Random random = new Random(42); // fixed seed so every run evaluates the same history
+        patient = new Patient(1);
+        timestamp = 1_700_000_000_000L;
+        for (int i = 0; i < recordCount; i++) {
+            String type = TYPES[i % TYPES.length];
+            patient.addRecord(typicalValue(type, random), type, timestamp++);
+        }
+    }
+
+    private static double typicalValue(String type, Random random) {
+        switch (type) {
+            case "Saturation":
+                return 94 + random.nextInt(7);
+            case "SystolicPressure":
+                return 110 + random.nextInt(20);
+            case "DiastolicPressure":
+                return 70 + random.nextInt(15);
+            default:
+                return 60 + random.nextDouble() * 40;
+        }
+    }
+
+    @Benchmark
+    public List<Alert> checkAlert() {
+        return strategy.checkAlert(patient);
+    }
+
+    @Benchmark
+    public List<Alert> checkRecord() {
+        int metricId = MetricRegistry.idOf(TYPES[next]);
+        next = (next + 1) % TYPES.length;
+        return strategy.checkRecord(patient, metricId, 95, timestamp++);
+    }
+}
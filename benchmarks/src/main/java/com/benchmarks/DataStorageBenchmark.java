@@ -0,0 +1,86 @@
+package com.benchmarks;
+
+import com.data_management.DataStorage;
+import com.data_management.MetricRegistry;
+import com.data_management.SampleBatch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures ingest throughput of {@link DataStorage#addPatientData}, with 1, 4
+ * and 16 writer threads spread over the configured patients, and of
+ * {@link DataStorage#addBatch} with batches of 4096 readings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class DataStorageBenchmark {
+    private static final int BATCH_SIZE = 4096;
+
+    @Param({"50", "1000", "10000"})
+    public int patientCount;
+
+    private DataStorage storage;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        storage = new DataStorage(); // start every iteration with an empty store
+    }
+
+    @State(Scope.Thread)
+    public static class Writer {
+        private int patientId;
+        private long timestamp = 1_700_000_000_000L;
+        private final SampleBatch batch = new SampleBatch(BATCH_SIZE);
+
+        int nextPatientId(int patientCount) {
+            patientId = patientId % patientCount + 1;
+            return patientId;
+        }
+    }
+
+    @Benchmark
+    public void addPatientData(Writer writer) {
+        storage.addPatientData(writer.nextPatientId(patientCount), 0.42, "ECG", writer.timestamp++);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void addPatientDataFourWriters(Writer writer) {
+        storage.addPatientData(writer.nextPatientId(patientCount), 0.42, "ECG", writer.timestamp++);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void addPatientDataSixteenWriters(Writer writer) {
+        storage.addPatientData(writer.nextPatientId(patientCount), 0.42, "ECG", writer.timestamp++);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void addBatch(Writer writer) {
+        SampleBatch batch = writer.batch;
+        batch.clear();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(writer.nextPatientId(patientCount), writer.timestamp++, MetricRegistry.ECG, 0.42);
+        }
+        storage.addBatch(batch);
+    }
+}
@@ -0,0 +1,84 @@
+package com.benchmarks;
+
+import com.alerts.AlertEvaluationEngine;
+import com.alerts.AlertGenerator;
+import com.alerts.EvaluationCycle;
+import com.data_management.DataStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures one {@link AlertEvaluationEngine} sweep over a fleet of 10,000
+ * patients with 100 readings each, with one thread and with one thread per
+ * CPU. The readings raise no alerts, so the generator does not grow between
+ * sweeps.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class FleetEvaluationBenchmark {
+    private static final int PATIENTS = 10_000;
+    private static final int READINGS_PER_PATIENT = 100;
+    private static final String[] TYPES = {"ECG", "Saturation", "SystolicPressure", "DiastolicPressure"};
+
+    @Param({"1", "0"}) // 0 means one thread per CPU
+    public int parallelism;
+
+    private AlertEvaluationEngine engine;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DataStorage storage = new DataStorage();
+        Random random = new Random(42); // fixed seed so every run evaluates the same fleet
+        for (int patientId = 1; patientId <= PATIENTS; patientId++) {
+            long timestamp = 1_700_000_000_000L;
+            for (int i = 0; i < READINGS_PER_PATIENT; i++) {
+                String type = TYPES[i % TYPES.length];
+                storage.addPatientData(patientId, quietValue(type, random), type, timestamp);
+                timestamp += 1000;
+            }
+        }
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        engine = new AlertEvaluationEngine(new AlertGenerator(storage), storage, threads);
+    }
+
+    private static double quietValue(String type, Random random) {
+        switch (type) {
+            case "Saturation":
+                return 96 + random.nextInt(4);
+            case "SystolicPressure":
+                return 110 + random.nextInt(5);
+            case "DiastolicPressure":
+                return 70 + random.nextInt(5);
+            default:
+                return 60 + random.nextDouble() * 40;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        engine.close();
+    }
+
+    @Benchmark
+    public EvaluationCycle evaluateAll() {
+        return engine.evaluateAll();
+    }
+}
@@ -0,0 +1,98 @@
+package com.benchmarks;
+
+import com.cardio_generator.generators.AlertGenerator;
+import com.cardio_generator.generators.BloodLevelsDataGenerator;
+import com.cardio_generator.generators.BloodPressureDataGenerator;
+import com.cardio_generator.generators.BloodSaturationDataGenerator;
+import com.cardio_generator.generators.ECGDataGenerator;
+import com.cardio_generator.generators.PatientDataGenerator;
+import com.cardio_generator.outputs.OutputStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures one tick of a generator for 100,000 patients on one thread, once
+ * with a {@code generate} call per patient and once with a single
+ * {@code generateBatch} call. The samples go to an output that only sums
+ * them, so the numbers show the cost of generating alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeneratorTickBenchmark {
+    private static final int PATIENTS = 100_000;
+
+    @Param({"ECG", "Saturation", "BloodPressure", "BloodLevels", "Alert"})
+    public String generatorType;
+
+    private PatientDataGenerator generator;
+    private int[] patientIds;
+    private final SummingOutput output = new SummingOutput();
+
+    @Setup
+    public void setUp() {
+        long seed = 42; // fixed seed so every run generates the same values
+        switch (generatorType) {
+            case "ECG":
+                generator = new ECGDataGenerator(PATIENTS, seed);
+                break;
+            case "Saturation":
+                generator = new BloodSaturationDataGenerator(PATIENTS, seed);
+                break;
+            case "BloodPressure":
+                generator = new BloodPressureDataGenerator(PATIENTS, seed);
+                break;
+            case "BloodLevels":
+                generator = new BloodLevelsDataGenerator(PATIENTS, seed);
+                break;
+            default:
+                generator = new AlertGenerator(PATIENTS, seed);
+        }
+        patientIds = new int[PATIENTS];
+        for (int i = 0; i < PATIENTS; i++) {
+            patientIds[i] = i + 1;
+        }
+    }
+
+    @Benchmark
+    public double perPatient() {
+        for (int patientId : patientIds) {
+            generator.generate(patientId, output);
+        }
+        return output.sum;
+    }
+
+    @Benchmark
+    public double batch() {
+        generator.generateBatch(patientIds, 0, patientIds.length, System.currentTimeMillis(), output);
+        return output.sum;
+    }
+
+    private static class SummingOutput implements OutputStrategy {
+        private double sum;
+
+        @Override
+        public void output(int patientId, long timestamp, String label, String data) {
+            sum += data.length();
+        }
+
+        @Override
+        public void output(int patientId, long timestamp, int metricId, double value) {
+            sum += value;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.benchmarks;
+
+import com.alerts.AlertGenerator;
+import com.cardio_generator.generators.BloodPressureDataGenerator;
+import com.cardio_generator.generators.BloodSaturationDataGenerator;
+import com.cardio_generator.generators.ECGDataGenerator;
+import com.cardio_generator.generators.PatientDataGenerator;
+import com.data_management.DataStorage;
+import com.data_management.DataStorageOutputStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the whole in-process pipeline at the simulator's maximum rate: the
+ * generators write into a {@link DataStorageOutputStrategy}, whose ingest
+ * thread stores the readings and evaluates them incrementally with an
+ * {@link AlertGenerator}. One operation is one tick of every generator for one
+ * patient. The queue is bounded, so once it is full the generators run at the
+ * rate the ingest thread keeps up with. Storage grows during the run, so the
+ * heap is sized for it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class IngestPipelineBenchmark {
+    private static final int PATIENTS = 1000;
+
+    @Param({"false", "true"})
+    public boolean alerts;
+
+    private DataStorageOutputStrategy output;
+    private PatientDataGenerator[] generators;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        DataStorage storage = new DataStorage();
+        if (alerts) {
+            new AlertGenerator(storage).enableIncrementalEvaluation();
+        }
+        output = new DataStorageOutputStrategy(storage);
+        generators = new PatientDataGenerator[] {
+                new ECGDataGenerator(PATIENTS, 1), // fixed seeds so every run generates the same values
+                new BloodSaturationDataGenerator(PATIENTS, 2),
+                new BloodPressureDataGenerator(PATIENTS, 3)
+        };
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        output.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PATIENTS)
+    public void tick() {
+        for (int patientId = 1; patientId <= PATIENTS; patientId++) {
+            for (PatientDataGenerator generator : generators) {
+                generator.generate(patientId, output);
+            }
+        }
+    }
+}
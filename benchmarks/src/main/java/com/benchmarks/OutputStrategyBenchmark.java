@@ -0,0 +1,175 @@
+package com.benchmarks;
+
+import com.cardio_generator.outputs.ConsoleOutputStrategy;
+import com.cardio_generator.outputs.OutputStrategy;
+import com.cardio_generator.outputs.TcpOutputStrategy;
+import com.cardio_generator.outputs.WebSocketOutputStrategy;
+import com.cardio_generator.outputs.fileOutputStrategy;
+import org.java_websocket.handshake.ServerHandshake;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures the cost of one {@link OutputStrategy#output} call for every output
+ * type the simulator supports, with the reading given as text and as a number. Network outputs get a local client that drains
+ * and discards everything it receives.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OutputStrategyBenchmark {
+    private static final String[] LABELS = {"ECG", "Saturation", "SystolicPressure", "DiastolicPressure"};
+
+    @Param({"console", "file", "tcp", "websocket", "websocket-batched"})
+    public String output;
+
+    @Param({"50", "1000"})
+    public int patientCount;
+
+    private OutputStrategy strategy;
+    private PrintStream originalOut;
+    private Path outputDirectory;
+    private Socket tcpClient;
+    private org.java_websocket.client.WebSocketClient webSocketClient;
+    private int patientId;
+    private int label;
+    private long timestamp = 1_700_000_000_000L;
+
+    @Setup
+    public void setUp() throws Exception {
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // console output and server logging
+        switch (output) {
+            case "console":
+                strategy = new ConsoleOutputStrategy();
+                break;
+            case "file":
+                outputDirectory = Files.createTempDirectory("output-benchmark");
+                strategy = new fileOutputStrategy(outputDirectory.toString());
+                break;
+            case "tcp":
+                int tcpPort = freePort();
+                strategy = new TcpOutputStrategy(tcpPort);
+                tcpClient = new Socket("localhost", tcpPort);
+                drain(tcpClient.getInputStream());
+                Thread.sleep(500); // the strategy accepts the client asynchronously
+                break;
+            case "websocket":
+                int webSocketPort = freePort();
+                strategy = new WebSocketOutputStrategy(webSocketPort);
+                connectWebSocketClient(webSocketPort);
+                break;
+            case "websocket-batched":
+                int batchedPort = freePort();
+                strategy = new WebSocketOutputStrategy(batchedPort, 20);
+                connectWebSocketClient(batchedPort);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown output: " + output);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        System.setOut(originalOut);
+        if (tcpClient != null) {
+            tcpClient.close();
+        }
+        if (webSocketClient != null) {
+            webSocketClient.close();
+        }
+        if (outputDirectory != null) {
+            try (Stream<Path> files = Files.walk(outputDirectory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @Benchmark
+    public void output() {
+        patientId = patientId % patientCount + 1;
+        label = (label + 1) % LABELS.length;
+        strategy.output(patientId, timestamp++, LABELS[label], "98.6");
+    }
+
+    @Benchmark
+    public void outputNumeric() {
+        patientId = patientId % patientCount + 1;
+        label = (label + 1) % LABELS.length; // the labels are metric IDs 0 to 3
+        strategy.output(patientId, timestamp++, label, 98.6);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void drain(InputStream in) {
+        Thread drainer = new Thread(() -> {
+            byte[] buffer = new byte[64 * 1024];
+            try {
+                while (in.read(buffer) >= 0) {
+                    // discard
+                }
+            } catch (IOException e) {
+                // connection closed at tear down
+            }
+        });
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    private void connectWebSocketClient(int port) throws Exception {
+        for (int attempt = 0; attempt < 50; attempt++) { // the server starts asynchronously
+            webSocketClient = new org.java_websocket.client.WebSocketClient(new URI("ws://localhost:" + port)) {
+                @Override
+                public void onOpen(ServerHandshake handshakedata) {
+                }
+
+                @Override
+                public void onMessage(String message) {
+                }
+
+                @Override
+                public void onClose(int code, String reason, boolean remote) {
+                }
+
+                @Override
+                public void onError(Exception ex) {
+                }
+            };
+            if (webSocketClient.connectBlocking(1, TimeUnit.SECONDS)) {
+                return;
+            }
+            Thread.sleep(100);
+        }
+        throw new IOException("Could not connect to the WebSocket output on port " + port);
+    }
+}
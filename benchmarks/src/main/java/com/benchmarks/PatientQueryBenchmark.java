@@ -0,0 +1,60 @@
+package com.benchmarks;
+
+import com.data_management.Patient;
+import com.data_management.PatientRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Patient#getRecords(long, long)} on a patient holding a large
+ * history, querying the last five minutes as a dashboard would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class PatientQueryBenchmark {
+    private static final long START = 1_700_000_000_000L;
+    private static final long SAMPLE_INTERVAL = 10; // one reading every 10 ms
+
+    @Param({"10000", "1000000", "10000000"})
+    public int recordCount;
+
+    private Patient patient;
+    private long lastTimestamp;
+
+    @Setup
+    public void setUp() {
+        patient = new Patient(1);
+        for (int i = 0; i < recordCount; i++) {
+            // Mostly ECG with some saturation readings, like the simulator produces
+            String type = i % 10 == 0 ? "Saturation" : "ECG";
+            patient.addRecord(i % 100, type, START + i * SAMPLE_INTERVAL);
+        }
+        lastTimestamp = START + (recordCount - 1) * SAMPLE_INTERVAL;
+    }
+
+    @Benchmark
+    public List<PatientRecord> lastFiveMinutes() {
+        return patient.getRecords(lastTimestamp - TimeUnit.MINUTES.toMillis(5), lastTimestamp);
+    }
+
+    @Benchmark
+    public List<PatientRecord> lastSecond() {
+        return patient.getRecords(lastTimestamp - 1000, lastTimestamp);
+    }
+}
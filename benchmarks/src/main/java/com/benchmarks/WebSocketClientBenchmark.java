@@ -0,0 +1,74 @@
+package com.benchmarks;
+
+import com.data_management.DataStorage;
+import com.data_management.WebSocketClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how fast {@link WebSocketClient} turns simulator messages into
+ * stored records, without a network connection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class WebSocketClientBenchmark {
+    private static final String[] LABELS = {"ECG", "Saturation", "SystolicPressure", "DiastolicPressure", "Cholesterol"};
+    private static final int MESSAGE_COUNT = 4096;
+
+    @Param({"50", "1000", "10000"})
+    public int patientCount;
+
+    private WebSocketClient client;
+    private String[] messages;
+    private int next;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void prepareMessages() {
+        Random random = new Random(42); // fixed seed so every run parses the same messages
+        messages = new String[MESSAGE_COUNT];
+        for (int i = 0; i < MESSAGE_COUNT; i++) {
+            int patientId = random.nextInt(patientCount) + 1;
+            String label = LABELS[random.nextInt(LABELS.length)];
+            messages[i] = patientId + "," + (1_700_000_000_000L + i) + "," + label + "," + random.nextDouble() * 100;
+        }
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // keep message logging out of the results
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        client = new WebSocketClient(new DataStorage());
+    }
+
+    @TearDown(Level.Trial)
+    public void restoreOut() {
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public void handleMessage() {
+        client.simulateMessage(messages[next]);
+        next = (next + 1) & (MESSAGE_COUNT - 1);
+    }
+}
@@ -1,26 +1,89 @@
 package com.alerts;
 
-// Represents an alert
+/**
+ * Represents an alert raised for a patient.
+ * Alerts are immutable and flat: the condition and priority are stored as
+ * enum codes, and the condition text is only built when
+ * {@link #getCondition()} is called, so holding many alerts is cheap.
+ * Conditions that are not an {@link AlertCondition} are kept as text.
+ */
 public class Alert {
-    private String patientId;
-    private String condition;
-    private long timestamp;
+    private final String patientId;
+    private final AlertCondition conditionCode; // null if the condition is free text
+    private final String conditionText; // only set for free-text conditions
+    private final AlertPriority priority; // null if the alert has no priority
+    private final long timestamp;
 
     public Alert(String patientId, String condition, long timestamp) {
+        this(patientId, AlertCondition.fromText(condition), condition, null, timestamp);
+    }
+
+    /**
+     * Constructs an alert for one of the known conditions, without priority.
+     *
+     * @param patientId the patient the alert is raised for
+     * @param condition the condition that was detected
+     * @param timestamp the time of the reading that raised the alert, in
+     *                  milliseconds since UNIX epoch
+     */
+    public Alert(String patientId, AlertCondition condition, long timestamp) {
+        this(patientId, condition, null, null, timestamp);
+    }
+
+    private Alert(String patientId, AlertCondition conditionCode, String conditionText, AlertPriority priority,
+            long timestamp) {
         this.patientId = patientId;
-        this.condition = condition;
+        this.conditionCode = conditionCode;
+        this.conditionText = conditionCode == null ? conditionText : null;
+        this.priority = priority;
         this.timestamp = timestamp;
     }
 
+    /**
+     * Returns a copy of this alert with the given priority.
+     *
+     * @param priority the priority of the copy
+     * @return the new alert
+     */
+    public Alert withPriority(AlertPriority priority) {
+        return new Alert(getPatientId(), conditionCode, conditionText, priority, getTimestamp());
+    }
+
     public String getPatientId() {
         return patientId;
     }
 
+    /**
+     * Returns the text of the condition, followed by the priority if the alert
+     * has one, e.g., "Low Saturation Alert: Blood Saturation Level Too Low
+     * [Priority: High]".
+     *
+     * @return the condition text
+     */
     public String getCondition() {
-        return condition;
+        String text = conditionCode != null ? conditionCode.getText() : conditionText;
+        return priority == null ? text : text + " [Priority: " + priority.getLabel() + "]";
+    }
+
+    /**
+     * Returns the condition code of this alert.
+     *
+     * @return the condition, or null if the condition is free text
+     */
+    public AlertCondition getConditionCode() {
+        return conditionCode;
+    }
+
+    /**
+     * Returns the priority of this alert.
+     *
+     * @return the priority, or null if the alert has none
+     */
+    public AlertPriority getPriority() {
+        return priority;
     }
 
     public long getTimestamp() {
         return timestamp;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,48 @@
+package com.alerts;
+
+/**
+ * The conditions raised by the alert strategies. Alerts store the condition
+ * as this code and only build its text when it is read.
+ */
+public enum AlertCondition {
+    SYSTOLIC_TREND("Trend Alert: Systolic Blood Pressure Trend Detected"),
+    DIASTOLIC_TREND("Trend Alert: Diastolic Blood Pressure Trend Detected"),
+    CRITICAL_THRESHOLD("Critical Threshold Alert: Blood Pressure Out of Range"),
+    ABNORMAL_HEART_RATE("Abnormal Heart Rate Alert: Heart Rate Out of Range"),
+    IRREGULAR_BEAT("Irregular Beat Alert: Abnormal Consecutive Beat Intervals Detected"),
+    RAPID_DROP("Rapid Drop Alert: Blood Saturation Level Fell Rapidly"),
+    LOW_SATURATION("Low Saturation Alert: Blood Saturation Level Too Low");
+
+    private static final AlertCondition[] VALUES = values();
+
+    private final String text;
+
+    AlertCondition(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Returns the text describing this condition.
+     *
+     * @return the condition text
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Returns the condition with the given text.
+     *
+     * @param text the condition text, e.g., "Low Saturation Alert: Blood
+     *             Saturation Level Too Low"
+     * @return the matching condition, or null if the text is not one of them
+     */
+    public static AlertCondition fromText(String text) {
+        for (AlertCondition condition : VALUES) {
+            if (condition.text.equals(text)) {
+                return condition;
+            }
+        }
+        return null;
+    }
+}
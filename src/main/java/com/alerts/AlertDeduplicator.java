@@ -0,0 +1,210 @@
+package com.alerts;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides which alerts raised by the strategies are new events.
+ * An alert is identified by its patient, condition and the timestamp of the
+ * reading that raised it, so rescanning a patient's history does not repeat
+ * alerts already raised; a repeated firing costs one hash lookup.
+ * A suppression window can be set per condition: an alert is then also
+ * suppressed if an accepted alert of the same patient and condition lies less
+ * than the window before or after it.
+ * Memory per patient and condition is bounded: only the most recent firings
+ * are remembered, so an alert older than all of them is treated as a repeat.
+ * All methods are safe to call from several threads; deciding locks only the
+ * alert's patient.
+ */
+public class AlertDeduplicator {
+    private final Map<Object, Long> suppressionWindows = new ConcurrentHashMap<>(); // by condition key
+    private final Map<String, PatientFirings> firingsByPatient = new ConcurrentHashMap<>();
+
+    /**
+     * Sets the suppression window of a condition. By default a condition has
+     * no window and only exact repeats are suppressed.
+     *
+     * @param condition    the condition as raised by the strategies, e.g.,
+     *                     "Low Saturation Alert: Blood Saturation Level Too Low"
+     * @param windowMillis the window in milliseconds, 0 to suppress exact
+     *                     repeats only
+     * @throws IllegalArgumentException if the window is negative
+     */
+    public void setSuppressionWindow(String condition, long windowMillis) {
+        AlertCondition code = AlertCondition.fromText(condition);
+        setWindow(code != null ? code : condition, windowMillis);
+    }
+
+    /**
+     * Sets the suppression window of one of the known conditions.
+     *
+     * @param condition    the condition
+     * @param windowMillis the window in milliseconds, 0 to suppress exact
+     *                     repeats only
+     * @throws IllegalArgumentException if the window is negative
+     */
+    public void setSuppressionWindow(AlertCondition condition, long windowMillis) {
+        setWindow(condition, windowMillis);
+    }
+
+    private void setWindow(Object conditionKey, long windowMillis) {
+        if (windowMillis < 0) {
+            throw new IllegalArgumentException("Suppression window must not be negative: " + windowMillis);
+        }
+        suppressionWindows.put(conditionKey, windowMillis);
+    }
+
+    /**
+     * Records a firing of an alert and reports whether it is a new event.
+     *
+     * @param alert the alert raised by a strategy
+     * @return true if the alert should be stored, false if it repeats or is
+     *         suppressed by an earlier alert
+     */
+    public boolean accept(Alert alert) {
+        // Known conditions are keyed by their code, so their text is never built
+        Object conditionKey = alert.getConditionCode() != null ? alert.getConditionCode() : alert.getCondition();
+        long window = suppressionWindows.getOrDefault(conditionKey, 0L);
+        return firingsByPatient.computeIfAbsent(alert.getPatientId(), id -> new PatientFirings())
+                .accept(conditionKey, alert.getTimestamp(), window);
+    }
+
+    /**
+     * Forgets the firings of a patient, e.g. after the patient was removed.
+     *
+     * @param patientId the ID of the patient
+     */
+    public void removePatient(String patientId) {
+        firingsByPatient.remove(patientId);
+    }
+
+    /**
+     * Returns how many firings are currently remembered over all patients and
+     * conditions, which stays bounded however long alerts keep firing.
+     *
+     * @return the number of remembered firing timestamps
+     */
+    public long getRememberedFirings() {
+        long count = 0;
+        for (PatientFirings firings : firingsByPatient.values()) {
+            count += firings.size();
+        }
+        return count;
+    }
+
+    private static class PatientFirings {
+        private final Map<Object, ConditionFirings> byCondition = new HashMap<>();
+
+        synchronized boolean accept(Object conditionKey, long timestamp, long window) {
+            return byCondition.computeIfAbsent(conditionKey, c -> new ConditionFirings()).accept(timestamp, window);
+        }
+
+        synchronized long size() {
+            long count = 0;
+            for (ConditionFirings firings : byCondition.values()) {
+                count += firings.seen.size() + firings.accepted.size();
+            }
+            return count;
+        }
+    }
+
+    /**
+     * The recent firings of one condition of one patient. Only the last
+     * {@value #SEEN_CAPACITY} firings and the accepted alerts within one window
+     * of the newest are kept; anything older is treated as already seen.
+     */
+    private static class ConditionFirings {
+        private static final int SEEN_CAPACITY = 64;
+
+        private final SortedLongs seen = new SortedLongs(); // timestamps of recent firings, accepted or not
+        private long seenHorizon = Long.MIN_VALUE; // newest timestamp dropped from seen
+        private final SortedLongs accepted = new SortedLongs(); // only kept while a window is set
+        private long acceptedHorizon = Long.MIN_VALUE; // accepted alerts before this were dropped
+
+        private boolean accept(long timestamp, long window) {
+            if (timestamp <= seenHorizon || !seen.add(timestamp)) {
+                return false; // the same event fired again
+            }
+            if (seen.size() > SEEN_CAPACITY) {
+                seenHorizon = Math.max(seenHorizon, seen.removeFirst());
+            }
+            if (window <= 0) {
+                return true;
+            }
+            if (timestamp < acceptedHorizon) {
+                return false; // older than the alerts still known, cannot be decided and counts as repeated
+            }
+            int index = accepted.indexOf(timestamp); // insertion point, timestamp is not accepted yet
+            if ((index > 0 && timestamp - accepted.get(index - 1) < window)
+                    || (index < accepted.size() && accepted.get(index) - timestamp < window)) {
+                return false;
+            }
+            accepted.insert(index, timestamp);
+            long newest = accepted.get(accepted.size() - 1);
+            if (newest - window > acceptedHorizon) {
+                acceptedHorizon = newest - window;
+                accepted.removeBefore(acceptedHorizon);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * A small sorted set of primitive longs.
+     */
+    private static class SortedLongs {
+        private long[] values = new long[8];
+        private int size;
+
+        private int size() {
+            return size;
+        }
+
+        private long get(int index) {
+            return values[index];
+        }
+
+        /**
+         * Returns the index of the value, or the index it would be inserted at.
+         */
+        private int indexOf(long value) {
+            int index = Arrays.binarySearch(values, 0, size, value);
+            return index >= 0 ? index : -index - 1;
+        }
+
+        /**
+         * Adds the value and reports whether it was not present before.
+         */
+        private boolean add(long value) {
+            int index = Arrays.binarySearch(values, 0, size, value);
+            if (index >= 0) {
+                return false;
+            }
+            insert(-index - 1, value);
+            return true;
+        }
+
+        private void insert(int index, long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            System.arraycopy(values, index, values, index + 1, size - index);
+            values[index] = value;
+            size++;
+        }
+
+        private long removeFirst() {
+            long first = values[0];
+            System.arraycopy(values, 1, values, 0, --size);
+            return first;
+        }
+
+        private void removeBefore(long value) {
+            int count = indexOf(value);
+            System.arraycopy(values, count, values, 0, size - count);
+            size -= count;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.alerts;
+
+import com.data_management.DataStorage;
+import com.data_management.Patient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluates all patients of a data storage in parallel, once or periodically.
+ * The patients are split into shards of up to {@value #SHARD_SIZE} that run as
+ * fork/join tasks on a work-stealing pool, so threads that finish early take
+ * over shards from busy ones. Each shard runs all strategies for its patients
+ * and collects their alerts in its own list, which is passed to the
+ * {@link AlertStore} when the shard is done. The store locks only the history
+ * of each alert's patient, and shards hold different patients, so they do not
+ * contend.
+ * A patient whose evaluation fails is skipped, so one bad record does not stop
+ * the sweep; the failures are counted in the sweep's summary.
+ * Every sweep is timed and summarized in an {@link EvaluationCycle}.
+ */
+public class AlertEvaluationEngine implements AutoCloseable {
+    private static final int SHARD_SIZE = 64;
+
+    private final AlertGenerator alertGenerator;
+    private final DataStorage dataStorage;
+    private final ForkJoinPool pool;
+    private ScheduledExecutorService scheduler;
+    private volatile EvaluationCycle lastCycle;
+
+    /**
+     * Constructs an engine evaluating the patients of a data storage.
+     *
+     * @param alertGenerator the generator whose strategies are run and which
+     *                       stores the alerts
+     * @param dataStorage    the storage holding the patients
+     * @param parallelism    the number of evaluation threads
+     */
+    public AlertEvaluationEngine(AlertGenerator alertGenerator, DataStorage dataStorage, int parallelism) {
+        this.alertGenerator = alertGenerator;
+        this.dataStorage = dataStorage;
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Evaluates every patient once and waits until all alerts are stored.
+     *
+     * @return the summary of the sweep
+     */
+    public EvaluationCycle evaluateAll() {
+        long start = System.nanoTime();
+        Patient[] patients = dataStorage.getAllPatients().toArray(new Patient[0]);
+        ShardResult result = pool.invoke(new ShardTask(patients, 0, patients.length));
+        EvaluationCycle cycle = new EvaluationCycle(patients.length, result.alertCount, System.nanoTime() - start,
+                result.failedPatients, result.failure);
+        lastCycle = cycle;
+        return cycle;
+    }
+
+    /**
+     * Returns the summary of the most recent sweep.
+     *
+     * @return the last cycle, or null if no sweep has finished yet
+     */
+    public EvaluationCycle getLastCycle() {
+        return lastCycle;
+    }
+
+    /**
+     * Starts sweeping all patients periodically. A sweep that takes longer than
+     * the interval, or in which patients failed, is reported on standard error;
+     * a longer sweep delays the next one. A sweep that fails as a whole is
+     * reported and recorded as the last cycle, see {@link #getLastCycle()},
+     * and the schedule keeps running.
+     *
+     * @param interval the time between the starts of two sweeps
+     * @param timeUnit the unit of the interval
+     */
+    public synchronized void start(long interval, TimeUnit timeUnit) {
+        stop();
+        long intervalNanos = timeUnit.toNanos(interval);
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "alert-evaluation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> {
+            long start = System.nanoTime();
+            try {
+                EvaluationCycle cycle = evaluateAll();
+                if (cycle.getDurationNanos() > intervalNanos) {
+                    System.err.println(cycle + ", longer than the interval of "
+                            + TimeUnit.NANOSECONDS.toMillis(intervalNanos) + " ms");
+                } else if (cycle.getFailedPatientCount() > 0) {
+                    System.err.println(cycle);
+                }
+            } catch (RuntimeException e) {
+                // Throwing would silently cancel the schedule, so the failure is recorded instead
+                lastCycle = new EvaluationCycle(0, 0, System.nanoTime() - start, 0, e);
+                System.err.println("Error evaluating patient data: " + e.getMessage());
+            }
+        }, interval, interval, timeUnit);
+    }
+
+    /**
+     * Stops the periodic sweeps started by {@link #start(long, TimeUnit)}.
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Stops the periodic sweeps and the evaluation threads.
+     */
+    @Override
+    public void close() {
+        stop();
+        pool.shutdown();
+    }
+
+    private class ShardTask extends RecursiveTask<ShardResult> {
+        private static final long serialVersionUID = 1L;
+
+        private final Patient[] patients;
+        private final int from;
+        private final int to;
+
+        ShardTask(Patient[] patients, int from, int to) {
+            this.patients = patients;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected ShardResult compute() {
+            if (to - from > SHARD_SIZE) {
+                int middle = (from + to) >>> 1;
+                ShardTask left = new ShardTask(patients, from, middle);
+                left.fork();
+                ShardResult right = new ShardTask(patients, middle, to).compute();
+                return left.join().merge(right);
+            }
+            ShardResult result = new ShardResult();
+            List<Alert> shardAlerts = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                int collected = shardAlerts.size();
+                try {
+                    alertGenerator.collectAlerts(patients[i], shardAlerts);
+                } catch (RuntimeException e) {
+                    shardAlerts.subList(collected, shardAlerts.size()).clear(); // keep no partial result
+                    result.failedPatients++;
+                    if (result.failure == null) {
+                        result.failure = e;
+                    }
+                }
+            }
+            alertGenerator.addAlerts(shardAlerts);
+            result.alertCount = shardAlerts.size();
+            return result;
+        }
+    }
+
+    /**
+     * The alerts and failures of one or more shards.
+     */
+    private static class ShardResult {
+        private int alertCount;
+        private int failedPatients;
+        private RuntimeException failure; // the first one
+
+        private ShardResult merge(ShardResult other) {
+            alertCount += other.alertCount;
+            failedPatients += other.failedPatients;
+            if (failure == null) {
+                failure = other.failure;
+            }
+            return this;
+        }
+    }
+}
@@ -1,54 +1,161 @@
 package com.alerts;
 
-import com.alerts.decorators.PriorityAlertDecorator;
-import com.alerts.decorators.RepeatedAlertDecorator;
 import com.alerts.strategies.AlertStrategy;
 import com.alerts.strategies.BloodPressureStrategy;
 import com.alerts.strategies.HeartRateStrategy;
 import com.alerts.strategies.OxygenSaturationStrategy;
 import com.data_management.DataStorage;
 import com.data_management.Patient;
+import com.data_management.PatientDataListener;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class AlertGenerator {
     private DataStorage dataStorage;
-    private List<Alert> alerts;
+    private final AlertStore alertStore;
+    private final AlertDeduplicator deduplicator = new AlertDeduplicator();
     private List<AlertStrategy> strategies;
+    private AlertStrategy[][] strategiesByMetric; // the strategies subscribed to each metric ID
 
     public AlertGenerator(DataStorage dataStorage) {
+        this(dataStorage, new AlertStore());
+    }
+
+    /**
+     * Constructs a generator storing its alerts in the given store.
+     *
+     * @param dataStorage the storage whose readings are evaluated
+     * @param alertStore  the store receiving the alerts
+     */
+    public AlertGenerator(DataStorage dataStorage, AlertStore alertStore) {
         this.dataStorage = dataStorage;
-        this.alerts = new ArrayList<>();
+        this.alertStore = alertStore;
         this.strategies = new ArrayList<>();
         strategies.add(new BloodPressureStrategy());
         strategies.add(new HeartRateStrategy());
         strategies.add(new OxygenSaturationStrategy());
+        this.strategiesByMetric = subscribe(strategies);
+    }
+
+    private static AlertStrategy[][] subscribe(List<AlertStrategy> strategies) {
+        List<List<AlertStrategy>> byMetric = new ArrayList<>();
+        for (AlertStrategy strategy : strategies) {
+            for (int metricId : strategy.getMetricIds()) {
+                while (byMetric.size() <= metricId) {
+                    byMetric.add(new ArrayList<>());
+                }
+                byMetric.get(metricId).add(strategy);
+            }
+        }
+        AlertStrategy[][] table = new AlertStrategy[byMetric.size()][];
+        for (int metricId = 0; metricId < table.length; metricId++) {
+            table[metricId] = byMetric.get(metricId).toArray(new AlertStrategy[0]);
+        }
+        return table;
     }
 
     public void evaluateData(Patient patient) {
+        List<Alert> patientAlerts = new ArrayList<>();
+        collectAlerts(patient, patientAlerts);
+        addAlerts(patientAlerts);
+    }
+
+    /**
+     * Runs all strategies on the full history of a patient and adds the alerts
+     * the deduplicator accepts to the given list without storing them, so
+     * alerts raised by earlier evaluations are not repeated.
+     */
+    void collectAlerts(Patient patient, List<Alert> sink) {
         for (AlertStrategy strategy : strategies) {
-            List<Alert> strategyAlerts = strategy.checkAlert(patient);
+            for (Alert alert : strategy.checkAlert(patient)) {
+                if (deduplicator.accept(alert)) {
+                    sink.add(decorate(alert));
+                }
+            }
+        }
+    }
+
+    /**
+     * Switches to incremental evaluation: from now on every reading added to the
+     * data storage is passed to the strategies as soon as it is stored, and only
+     * that reading is evaluated. Each reading is therefore evaluated once and its
+     * alerts are not re-emitted by later evaluations. A reading is only passed to
+     * the strategies subscribed to its metric. When a patient is removed from
+     * the data storage, the state kept for them is discarded.
+     */
+    public void enableIncrementalEvaluation() {
+        dataStorage.addListener(new PatientDataListener() {
+            @Override
+            public void onPatientData(Patient patient, int metricId, double measurementValue, long timestamp) {
+                evaluateRecord(patient, metricId, measurementValue, timestamp);
+            }
+
+            @Override
+            public void onPatientRemoved(int patientId) {
+                for (AlertStrategy strategy : strategies) {
+                    strategy.removePatient(patientId);
+                }
+                deduplicator.removePatient(String.valueOf(patientId));
+            }
+        });
+    }
+
+    private void evaluateRecord(Patient patient, int metricId, double measurementValue, long timestamp) {
+        if (metricId >= strategiesByMetric.length) {
+            return; // no strategy evaluates this metric
+        }
+        for (AlertStrategy strategy : strategiesByMetric[metricId]) {
+            List<Alert> strategyAlerts = strategy.checkRecord(patient, metricId, measurementValue, timestamp);
             for (Alert alert : strategyAlerts) {
-                Alert repeatedAlert = new RepeatedAlertDecorator(alert, 60000); // Recheck every 60 seconds
-                Alert priorityAlert = new PriorityAlertDecorator(repeatedAlert, "High");
-                alerts.add(priorityAlert);
+                addAlert(alert);
             }
         }
     }
 
+    private void addAlert(Alert alert) {
+        if (deduplicator.accept(alert)) {
+            alertStore.add(decorate(alert));
+        }
+    }
+
+    void addAlerts(List<Alert> decoratedAlerts) {
+        alertStore.addAll(decoratedAlerts);
+    }
+
+    private static Alert decorate(Alert alert) {
+        return alert.withPriority(AlertPriority.HIGH);
+    }
+
+    /**
+     * Returns the deduplicator deciding which raised alerts are stored, where
+     * suppression windows can be set per condition.
+     *
+     * @return the alert deduplicator
+     */
+    public AlertDeduplicator getDeduplicator() {
+        return deduplicator;
+    }
+
+    /**
+     * Returns the store holding the generated alerts, which also answers
+     * time-bounded and paginated queries.
+     *
+     * @return the alert store
+     */
+    public AlertStore getAlertStore() {
+        return alertStore;
+    }
+
     public int getAlertCount() {
-        return alerts.size();
+        return alertStore.size();
     }
 
     public List<Alert> getAllAlerts() {
-        return new ArrayList<>(alerts);
+        return alertStore.getAllAlerts();
     }
 
     public List<Alert> getAlertsByPatientId(String patientId) {
-        return alerts.stream()
-                .filter(alert -> alert.getPatientId().equals(patientId))
-                .collect(Collectors.toList());
+        return alertStore.getAlerts(patientId);
     }
 }
@@ -0,0 +1,25 @@
+package com.alerts;
+
+/**
+ * The priority of an alert, shown after its condition text.
+ */
+public enum AlertPriority {
+    LOW("Low"),
+    MEDIUM("Medium"),
+    HIGH("High");
+
+    private final String label;
+
+    AlertPriority(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Returns the label of this priority.
+     *
+     * @return the label, e.g., "High"
+     */
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,269 @@
+package com.alerts;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stores alerts indexed by patient and by time.
+ * Every patient has its own history, found with one hash lookup, so the cost
+ * of a per-patient query depends only on that patient's alerts and the size
+ * of the requested page, not on the total number of alerts.
+ * Each history keeps its alerts both in arrival order and sorted by
+ * timestamp; time-bounded queries find their range with a binary search.
+ * Retention is bounded per patient: once a patient has the maximum number of
+ * alerts, each new alert evicts that patient's oldest one by arrival.
+ * All methods are safe to call from several threads; adding alerts locks only
+ * the history of the alert's patient.
+ */
+public class AlertStore {
+    /** The number of alerts kept per patient by {@link #AlertStore()}. */
+    public static final int DEFAULT_MAX_ALERTS_PER_PATIENT = 10_000;
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final int maxAlertsPerPatient;
+    private final Map<String, PatientAlerts> historiesByPatient = new ConcurrentHashMap<>();
+    private final AtomicLong nextSequence = new AtomicLong(); // arrival order across all patients
+    private final AtomicInteger alertCount = new AtomicInteger();
+
+    /**
+     * Constructs a store keeping up to
+     * {@value #DEFAULT_MAX_ALERTS_PER_PATIENT} alerts per patient.
+     */
+    public AlertStore() {
+        this(DEFAULT_MAX_ALERTS_PER_PATIENT);
+    }
+
+    /**
+     * Constructs a store keeping up to the given number of alerts per patient.
+     *
+     * @param maxAlertsPerPatient the number of alerts kept per patient
+     * @throws IllegalArgumentException if the number is not positive
+     */
+    public AlertStore(int maxAlertsPerPatient) {
+        if (maxAlertsPerPatient <= 0) {
+            throw new IllegalArgumentException("Maximum alerts per patient must be positive: " + maxAlertsPerPatient);
+        }
+        this.maxAlertsPerPatient = maxAlertsPerPatient;
+    }
+
+    /**
+     * Adds an alert, evicting the oldest alert of its patient if the patient
+     * already has the maximum number of alerts.
+     *
+     * @param alert the alert to store
+     */
+    public void add(Alert alert) {
+        PatientAlerts history = historiesByPatient.computeIfAbsent(alert.getPatientId(), id -> new PatientAlerts());
+        if (history.add(alert, nextSequence.getAndIncrement(), maxAlertsPerPatient)) {
+            alertCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Adds several alerts in order.
+     *
+     * @param alerts the alerts to store
+     */
+    public void addAll(List<Alert> alerts) {
+        for (Alert alert : alerts) {
+            add(alert);
+        }
+    }
+
+    /**
+     * Returns the number of stored alerts of all patients.
+     *
+     * @return the number of alerts
+     */
+    public int size() {
+        return alertCount.get();
+    }
+
+    /**
+     * Returns all alerts of one patient in the order they were added.
+     *
+     * @param patientId the patient whose alerts are returned
+     * @return a new list of the patient's alerts, empty if there are none
+     */
+    public List<Alert> getAlerts(String patientId) {
+        PatientAlerts history = historiesByPatient.get(patientId);
+        return history != null ? history.byArrival() : new ArrayList<>();
+    }
+
+    /**
+     * Returns one page of a patient's alerts within a time range, sorted by
+     * timestamp; alerts with the same timestamp are in the order they were
+     * added.
+     *
+     * @param patientId the patient whose alerts are returned
+     * @param startTime the start of the time range, in milliseconds since UNIX
+     *                  epoch
+     * @param endTime   the end of the time range, in milliseconds since UNIX epoch
+     * @param offset    the number of matching alerts to skip
+     * @param limit     the maximum number of alerts to return
+     * @return a new list of at most {@code limit} alerts
+     */
+    public List<Alert> getAlerts(String patientId, long startTime, long endTime, int offset, int limit) {
+        PatientAlerts history = historiesByPatient.get(patientId);
+        return history != null ? history.inTimeRange(startTime, endTime, offset, limit) : new ArrayList<>();
+    }
+
+    /**
+     * Returns the alerts of all patients in the order they were added. This
+     * copies and sorts the whole store; prefer the per-patient queries for
+     * polling.
+     *
+     * @return a new list of all alerts
+     */
+    public List<Alert> getAllAlerts() {
+        List<long[]> keys = new ArrayList<>(); // arrival number and position in the result
+        List<Alert> unordered = new ArrayList<>();
+        for (PatientAlerts history : historiesByPatient.values()) {
+            history.collect(unordered, keys);
+        }
+        long[][] sorted = keys.toArray(new long[0][]);
+        Arrays.sort(sorted, (a, b) -> Long.compare(a[0], b[0]));
+        List<Alert> alerts = new ArrayList<>(sorted.length);
+        for (long[] key : sorted) {
+            alerts.add(unordered.get((int) key[1]));
+        }
+        return alerts;
+    }
+
+    /**
+     * The alerts of one patient, as a ring in arrival order and as arrays
+     * sorted by timestamp and arrival number.
+     */
+    private static class PatientAlerts {
+        private Alert[] ring = new Alert[INITIAL_CAPACITY];
+        private long[] ringSequences = new long[INITIAL_CAPACITY];
+        private int head; // slot of the oldest alert
+        private int size;
+
+        private Alert[] byTime = new Alert[INITIAL_CAPACITY];
+        private long[] times = new long[INITIAL_CAPACITY];
+        private long[] timeSequences = new long[INITIAL_CAPACITY];
+
+        /**
+         * Adds an alert and reports whether the history grew, which is not the
+         * case if the oldest alert was evicted.
+         */
+        synchronized boolean add(Alert alert, long sequence, int maxAlerts) {
+            boolean grew = size < maxAlerts;
+            if (!grew) {
+                removeFromTimeIndex(ringSequences[head], ring[head].getTimestamp());
+                ring[head] = null;
+                head = (head + 1) % ring.length;
+                size--;
+            } else if (size == ring.length) {
+                grow(Math.min(size * 2, maxAlerts));
+            }
+            int slot = (head + size) % ring.length;
+            ring[slot] = alert;
+            ringSequences[slot] = sequence;
+            insertIntoTimeIndex(alert, sequence);
+            size++;
+            return grew;
+        }
+
+        private void grow(int capacity) {
+            Alert[] newRing = new Alert[capacity];
+            long[] newSequences = new long[capacity];
+            for (int i = 0; i < size; i++) {
+                int slot = (head + i) % ring.length;
+                newRing[i] = ring[slot];
+                newSequences[i] = ringSequences[slot];
+            }
+            ring = newRing;
+            ringSequences = newSequences;
+            head = 0;
+            byTime = Arrays.copyOf(byTime, capacity);
+            times = Arrays.copyOf(times, capacity);
+            timeSequences = Arrays.copyOf(timeSequences, capacity);
+        }
+
+        private void insertIntoTimeIndex(Alert alert, long sequence) {
+            long timestamp = alert.getTimestamp();
+            // Alerts usually arrive in time order, so the new one normally goes last
+            int index = size == 0 || times[size - 1] <= timestamp ? size : firstIndexAfter(timestamp);
+            System.arraycopy(byTime, index, byTime, index + 1, size - index);
+            System.arraycopy(times, index, times, index + 1, size - index);
+            System.arraycopy(timeSequences, index, timeSequences, index + 1, size - index);
+            byTime[index] = alert;
+            times[index] = timestamp;
+            timeSequences[index] = sequence;
+        }
+
+        private void removeFromTimeIndex(long sequence, long timestamp) {
+            int index = firstIndexAtOrAfter(timestamp);
+            while (timeSequences[index] != sequence) {
+                index++; // alerts with the same timestamp are ordered by arrival
+            }
+            System.arraycopy(byTime, index + 1, byTime, index, size - index - 1);
+            System.arraycopy(times, index + 1, times, index, size - index - 1);
+            System.arraycopy(timeSequences, index + 1, timeSequences, index, size - index - 1);
+            byTime[size - 1] = null;
+        }
+
+        synchronized List<Alert> byArrival() {
+            List<Alert> alerts = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                alerts.add(ring[(head + i) % ring.length]);
+            }
+            return alerts;
+        }
+
+        synchronized List<Alert> inTimeRange(long startTime, long endTime, int offset, int limit) {
+            int end = firstIndexAfter(endTime);
+            int from = (int) Math.min((long) firstIndexAtOrAfter(startTime) + Math.max(offset, 0), end);
+            int to = (int) Math.min(end, (long) from + Math.max(limit, 0));
+            List<Alert> alerts = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                alerts.add(byTime[i]);
+            }
+            return alerts;
+        }
+
+        synchronized void collect(List<Alert> alerts, List<long[]> keys) {
+            for (int i = 0; i < size; i++) {
+                int slot = (head + i) % ring.length;
+                keys.add(new long[] { ringSequences[slot], alerts.size() });
+                alerts.add(ring[slot]);
+            }
+        }
+
+        private int firstIndexAtOrAfter(long timestamp) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (times[mid] < timestamp) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private int firstIndexAfter(long timestamp) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (times[mid] <= timestamp) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
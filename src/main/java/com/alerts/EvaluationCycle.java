@@ -0,0 +1,82 @@
+package com.alerts;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summarizes one sweep of an {@link AlertEvaluationEngine} over all patients.
+ */
+public final class EvaluationCycle {
+    private final int patientCount;
+    private final int alertCount;
+    private final long durationNanos;
+    private final int failedPatientCount;
+    private final RuntimeException failure;
+
+    EvaluationCycle(int patientCount, int alertCount, long durationNanos, int failedPatientCount,
+            RuntimeException failure) {
+        this.patientCount = patientCount;
+        this.alertCount = alertCount;
+        this.durationNanos = durationNanos;
+        this.failedPatientCount = failedPatientCount;
+        this.failure = failure;
+    }
+
+    /**
+     * Returns the number of patients evaluated in the sweep.
+     *
+     * @return the number of patients
+     */
+    public int getPatientCount() {
+        return patientCount;
+    }
+
+    /**
+     * Returns the number of alerts raised by the sweep.
+     *
+     * @return the number of alerts
+     */
+    public int getAlertCount() {
+        return alertCount;
+    }
+
+    /**
+     * Returns how long the sweep took, from listing the patients until the last
+     * alert was stored.
+     *
+     * @return the latency of the sweep in nanoseconds
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * Returns the number of patients whose evaluation threw an exception and
+     * who were skipped.
+     *
+     * @return the number of failed patients
+     */
+    public int getFailedPatientCount() {
+        return failedPatientCount;
+    }
+
+    /**
+     * Returns the first exception of the sweep: the failure of a patient, or
+     * of the whole sweep if it could not run.
+     *
+     * @return the exception, or null if the sweep had no failures
+     */
+    public RuntimeException getFailure() {
+        return failure;
+    }
+
+    @Override
+    public String toString() {
+        String summary = "Evaluated " + patientCount + " patients in " + TimeUnit.NANOSECONDS.toMillis(durationNanos)
+                + " ms, " + alertCount + " alerts";
+        if (failure == null) {
+            return summary;
+        }
+        return summary + ", failed for " + (failedPatientCount > 0 ? failedPatientCount + " patients" : "the sweep")
+                + ": " + failure;
+    }
+}
@@ -1,10 +1,41 @@
 package com.alerts.strategies;
 
 import com.alerts.Alert;
+import com.data_management.MetricRegistry;
 import com.data_management.Patient;
 
 import java.util.List;
 
 public interface AlertStrategy {
     List<Alert> checkAlert(Patient patient);
+
+    /**
+     * Returns the metrics this strategy evaluates. Incremental evaluation only
+     * passes readings of these metrics to {@link #checkRecord}.
+     *
+     * @return the metric IDs, see {@link MetricRegistry}
+     */
+    int[] getMetricIds();
+
+    /**
+     * Evaluates a single new reading against the state this strategy keeps for
+     * the patient, instead of rescanning the whole history.
+     * Each reading must be passed exactly once, in the order it was stored.
+     *
+     * @param patient          the patient the reading belongs to
+     * @param metricId         the ID of the record type, see {@link MetricRegistry}
+     * @param measurementValue the measured value
+     * @param timestamp        the time of the reading, in milliseconds since the Unix epoch
+     * @return the alerts triggered by this reading, usually an empty list
+     */
+    List<Alert> checkRecord(Patient patient, int metricId, double measurementValue, long timestamp);
+
+    /**
+     * Discards the state kept for a patient by {@link #checkRecord}, e.g. after
+     * the patient was removed from the data storage. Does nothing by default.
+     *
+     * @param patientId the ID of the patient
+     */
+    default void removePatient(int patientId) {
+    }
 }
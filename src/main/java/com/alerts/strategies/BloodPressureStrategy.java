@@ -1,61 +1,148 @@
 package com.alerts.strategies;
 
 import com.alerts.Alert;
+import com.alerts.AlertCondition;
+import com.data_management.MetricRegistry;
+import com.data_management.MetricSeries;
 import com.data_management.Patient;
-import com.data_management.PatientRecord;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class BloodPressureStrategy implements AlertStrategy {
+    private static final int[] METRIC_IDS = {MetricRegistry.SYSTOLIC_PRESSURE, MetricRegistry.DIASTOLIC_PRESSURE};
 
+    // State for incremental evaluation, one entry per patient ID
+    private final Map<Integer, PressureState> states = new ConcurrentHashMap<>();
+
+    /**
+     * Scans the patient's systolic and diastolic readings only, sliding the same
+     * three reading trend window as {@link #checkRecord} over each of them.
+     */
     @Override
     public List<Alert> checkAlert(Patient patient) {
         List<Alert> alerts = new ArrayList<>();
-        List<PatientRecord> records = patient.getAllRecords();
-        List<Double> systolicValues = new ArrayList<>();
-        List<Double> diastolicValues = new ArrayList<>();
-
-        for (PatientRecord record : records) {
-            switch (record.getRecordType()) {
-                case "SystolicPressure":
-                    systolicValues.add(record.getMeasurementValue());
-                    if (systolicValues.size() > 2) {
-                        if (checkTrendConditions(systolicValues)) {
-                            alerts.add(new Alert(patient.getId(), "Trend Alert: Systolic Blood Pressure Trend Detected", record.getTimestamp()));
-                            systolicValues.remove(0);
-                        }
-                    }
-                    break;
-                case "DiastolicPressure":
-                    diastolicValues.add(record.getMeasurementValue());
-                    if (diastolicValues.size() > 2) {
-                        if (checkTrendConditions(diastolicValues)) {
-                            alerts.add(new Alert(patient.getId(), "Trend Alert: Diastolic Blood Pressure Trend Detected", record.getTimestamp()));
-                            diastolicValues.remove(0);
-                        }
-                    }
-                    break;
+        MetricSeries systolic = patient.getSeries(MetricRegistry.SYSTOLIC_PRESSURE);
+        MetricSeries diastolic = patient.getSeries(MetricRegistry.DIASTOLIC_PRESSURE);
+
+        checkTrend(patient, systolic, AlertCondition.SYSTOLIC_TREND, alerts);
+        checkTrend(patient, diastolic, AlertCondition.DIASTOLIC_TREND, alerts);
+
+        // Both pressures raise the same condition, so they are merged in time order
+        int s = 0;
+        int d = 0;
+        while (s < systolic.size() || d < diastolic.size()) {
+            boolean systolicNext = d == diastolic.size()
+                    || (s < systolic.size() && systolic.getTimestamp(s) <= diastolic.getTimestamp(d));
+            if (systolicNext) {
+                if (isSystolicCritical(systolic.getValue(s))) {
+                    alerts.add(new Alert(patient.getId(), AlertCondition.CRITICAL_THRESHOLD, systolic.getTimestamp(s)));
+                }
+                s++;
+            } else {
+                if (isDiastolicCritical(diastolic.getValue(d))) {
+                    alerts.add(new Alert(patient.getId(), AlertCondition.CRITICAL_THRESHOLD,
+                            diastolic.getTimestamp(d)));
+                }
+                d++;
             }
         }
 
-        for (PatientRecord record : records) {
-            if (record.getRecordType().equals("SystolicPressure") && (record.getMeasurementValue() > 180 || record.getMeasurementValue() < 90)) {
-                alerts.add(new Alert(patient.getId(), "Critical Threshold Alert: Blood Pressure Out of Range", record.getTimestamp()));
-            } else if (record.getRecordType().equals("DiastolicPressure") && (record.getMeasurementValue() > 120 || record.getMeasurementValue() < 60)) {
-                alerts.add(new Alert(patient.getId(), "Critical Threshold Alert: Blood Pressure Out of Range", record.getTimestamp()));
+        return alerts;
+    }
+
+    private static void checkTrend(Patient patient, MetricSeries series, AlertCondition condition,
+            List<Alert> alerts) {
+        TrendWindow window = new TrendWindow();
+        for (int i = 0; i < series.size(); i++) {
+            if (window.add(series.getValue(i))) {
+                alerts.add(new Alert(patient.getId(), condition, series.getTimestamp(i)));
             }
         }
+    }
 
-        return alerts;
+    @Override
+    public int[] getMetricIds() {
+        return METRIC_IDS.clone();
     }
 
-    private boolean checkTrendConditions(List<Double> values) {
-        if (values.size() < 3) {
-            return false;
+    @Override
+    public void removePatient(int patientId) {
+        states.remove(patientId);
+    }
+
+    /**
+     * Keeps the last three systolic and diastolic values per patient and checks
+     * the trend and thresholds for the new reading only.
+     */
+    @Override
+    public List<Alert> checkRecord(Patient patient, int metricId, double measurementValue, long timestamp) {
+        boolean systolic = metricId == MetricRegistry.SYSTOLIC_PRESSURE;
+        if (!systolic && metricId != MetricRegistry.DIASTOLIC_PRESSURE) {
+            return Collections.emptyList();
+        }
+        PressureState state = states.computeIfAbsent(patient.getPatientId(), id -> new PressureState());
+        List<Alert> alerts = new ArrayList<>(2);
+        synchronized (state) {
+            if (systolic) {
+                if (state.systolic.add(measurementValue)) {
+                    alerts.add(new Alert(patient.getId(), AlertCondition.SYSTOLIC_TREND, timestamp));
+                }
+                if (isSystolicCritical(measurementValue)) {
+                    alerts.add(new Alert(patient.getId(), AlertCondition.CRITICAL_THRESHOLD, timestamp));
+                }
+            } else {
+                if (state.diastolic.add(measurementValue)) {
+                    alerts.add(new Alert(patient.getId(), AlertCondition.DIASTOLIC_TREND, timestamp));
+                }
+                if (isDiastolicCritical(measurementValue)) {
+                    alerts.add(new Alert(patient.getId(), AlertCondition.CRITICAL_THRESHOLD, timestamp));
+                }
+            }
         }
-        boolean increasingTrend = values.get(2) - values.get(1) > 10 && values.get(1) - values.get(0) > 10;
-        boolean decreasingTrend = values.get(0) - values.get(1) > 10 && values.get(1) - values.get(2) > 10;
+        return alerts;
+    }
+
+    private static boolean isSystolicCritical(double value) {
+        return value > 180 || value < 90;
+    }
+
+    private static boolean isDiastolicCritical(double value) {
+        return value > 120 || value < 60;
+    }
+
+    private static boolean isTrend(double first, double second, double third) {
+        boolean increasingTrend = third - second > 10 && second - first > 10;
+        boolean decreasingTrend = first - second > 10 && second - third > 10;
         return increasingTrend || decreasingTrend;
     }
+
+    private static class PressureState {
+        private final TrendWindow systolic = new TrendWindow();
+        private final TrendWindow diastolic = new TrendWindow();
+    }
+
+    /**
+     * The last three readings of one pressure type.
+     */
+    private static class TrendWindow {
+        private double first;
+        private double second;
+        private double third;
+        private int count;
+
+        /**
+         * Adds a reading and reports whether the last three readings form a trend.
+         */
+        private boolean add(double value) {
+            first = second;
+            second = third;
+            third = value;
+            count = Math.min(count + 1, 3);
+            return count == 3 && isTrend(first, second, third);
+        }
+    }
 }
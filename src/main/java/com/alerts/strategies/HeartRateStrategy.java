@@ -1,41 +1,117 @@
 package com.alerts.strategies;
 
 import com.alerts.Alert;
+import com.alerts.AlertCondition;
+import com.data_management.MetricRegistry;
+import com.data_management.MetricSeries;
 import com.data_management.Patient;
-import com.data_management.PatientRecord;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class HeartRateStrategy implements AlertStrategy {
+    private static final int[] METRIC_IDS = {MetricRegistry.ECG};
 
+    // State for incremental evaluation, one entry per patient ID
+    private final Map<Integer, BeatState> states = new ConcurrentHashMap<>();
+
+    /**
+     * Scans the patient's ECG readings only. Beat intervals are measured between
+     * consecutive ECG readings, with the same running deviation as
+     * {@link #checkRecord}.
+     */
     @Override
     public List<Alert> checkAlert(Patient patient) {
         List<Alert> alerts = new ArrayList<>();
-        List<PatientRecord> records = patient.getAllRecords();
-        List<Double> rrIntervals = new ArrayList<>();
+        MetricSeries ecg = patient.getSeries(MetricRegistry.ECG);
 
-        for (PatientRecord record : records) {
-            if (record.getRecordType().equals("ECG") && (record.getMeasurementValue() > 100 || record.getMeasurementValue() < 50)) {
-                alerts.add(new Alert(patient.getId(), "Abnormal Heart Rate Alert: Heart Rate Out of Range", record.getTimestamp()));
+        for (int i = 0; i < ecg.size(); i++) {
+            if (isOutOfRange(ecg.getValue(i))) {
+                alerts.add(new Alert(patient.getId(), AlertCondition.ABNORMAL_HEART_RATE, ecg.getTimestamp(i)));
             }
         }
 
-        for (int i = 1; i < records.size(); i++) {
-            if (records.get(i).getRecordType().equals("ECG")) {
-                double rrInterval = records.get(i).getTimestamp() - records.get(i - 1).getTimestamp();
-                rrIntervals.add(rrInterval);
+        BeatState beats = new BeatState();
+        for (int i = 1; i < ecg.size(); i++) {
+            beats.addInterval(ecg.getTimestamp(i) - ecg.getTimestamp(i - 1));
+        }
+        if (beats.intervalCount > 1 && beats.standardDeviation() > 0.1) {
+            alerts.add(new Alert(patient.getId(), AlertCondition.IRREGULAR_BEAT, ecg.getTimestamp(ecg.size() - 1)));
+        }
+
+        return alerts;
+    }
+
+    @Override
+    public int[] getMetricIds() {
+        return METRIC_IDS.clone();
+    }
+
+    @Override
+    public void removePatient(int patientId) {
+        states.remove(patientId);
+    }
+
+    /**
+     * Keeps a running mean and variance of the intervals between consecutive
+     * ECG readings (Welford's algorithm), so each reading costs O(1).
+     * The irregular beat alert is raised when the deviation first exceeds the
+     * limit, not again for every following reading. A late reading, older than
+     * the newest one, is still checked against the range but adds no interval,
+     * as the interval to it would be negative.
+     */
+    @Override
+    public List<Alert> checkRecord(Patient patient, int metricId, double measurementValue, long timestamp) {
+        if (metricId != MetricRegistry.ECG) {
+            return Collections.emptyList();
+        }
+        BeatState state = states.computeIfAbsent(patient.getPatientId(), id -> new BeatState());
+        List<Alert> alerts = new ArrayList<>(2);
+        if (isOutOfRange(measurementValue)) {
+            alerts.add(new Alert(patient.getId(), AlertCondition.ABNORMAL_HEART_RATE, timestamp));
+        }
+        synchronized (state) {
+            if (state.hasLastTimestamp && timestamp < state.lastTimestamp) {
+                return alerts; // late reading
+            }
+            if (state.hasLastTimestamp) {
+                state.addInterval(timestamp - state.lastTimestamp);
+                boolean irregular = state.intervalCount > 1 && state.standardDeviation() > 0.1;
+                if (irregular && !state.irregular) {
+                    alerts.add(new Alert(patient.getId(), AlertCondition.IRREGULAR_BEAT, timestamp));
+                }
+                state.irregular = irregular;
             }
+            state.lastTimestamp = timestamp;
+            state.hasLastTimestamp = true;
         }
+        return alerts;
+    }
+
+    private static boolean isOutOfRange(double value) {
+        return value > 100 || value < 50;
+    }
 
-        double meanRRInterval = rrIntervals.stream().mapToDouble(Double::doubleValue).average().orElse(0);
-        double sumSquaredDeviations = rrIntervals.stream().mapToDouble(rrInterval -> Math.pow(rrInterval - meanRRInterval, 2)).sum();
-        double standardDeviation = Math.sqrt(sumSquaredDeviations / (rrIntervals.size() - 1));
+    private static class BeatState {
+        private long lastTimestamp;
+        private boolean hasLastTimestamp;
+        private long intervalCount;
+        private double mean;
+        private double sumSquaredDeviations;
+        private boolean irregular;
 
-        if (standardDeviation > 0.1) {
-            alerts.add(new Alert(patient.getId(), "Irregular Beat Alert: Abnormal Consecutive Beat Intervals Detected", records.get(records.size() - 1).getTimestamp()));
+        private void addInterval(double interval) {
+            intervalCount++;
+            double delta = interval - mean;
+            mean += delta / intervalCount;
+            sumSquaredDeviations += delta * (interval - mean);
         }
 
-        return alerts;
+        private double standardDeviation() {
+            return Math.sqrt(sumSquaredDeviations / (intervalCount - 1));
+        }
     }
 }
@@ -1,47 +1,94 @@
 package com.alerts.strategies;
 
 import com.alerts.Alert;
+import com.alerts.AlertCondition;
+import com.data_management.MetricRegistry;
+import com.data_management.MetricSeries;
 import com.data_management.Patient;
-import com.data_management.PatientRecord;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class OxygenSaturationStrategy implements AlertStrategy {
+    private static final int WINDOW_SIZE = 10;
+    private static final int[] METRIC_IDS = {MetricRegistry.SATURATION};
 
+    // State for incremental evaluation, one entry per patient ID
+    private final Map<Integer, SaturationWindow> windows = new ConcurrentHashMap<>();
+
+    /**
+     * Scans the patient's saturation readings only, sliding the same ten
+     * reading window as {@link #checkRecord} over them.
+     */
     @Override
     public List<Alert> checkAlert(Patient patient) {
         List<Alert> alerts = new ArrayList<>();
-        List<PatientRecord> records = patient.getAllRecords();
-        List<Double> window = new ArrayList<>();
-        int startIndex = 0;
-
-        for (int i = 0; i < records.size(); i++) {
-            PatientRecord record = records.get(i);
-            if (record.getRecordType().equals("Saturation")) {
-                window.add(record.getMeasurementValue());
-                if (i - startIndex == 9) {
-                    if (checkRapidDrop(window)) {
-                        alerts.add(new Alert(patient.getId(), "Rapid Drop Alert: Blood Saturation Level Fell Rapidly", record.getTimestamp()));
-                    }
-                    window.remove(0);
-                    startIndex++;
-                }
+        MetricSeries saturation = patient.getSeries(MetricRegistry.SATURATION);
+
+        SaturationWindow window = new SaturationWindow();
+        for (int i = 0; i < saturation.size(); i++) {
+            if (window.add(saturation.getValue(i))) {
+                alerts.add(new Alert(patient.getId(), AlertCondition.RAPID_DROP, saturation.getTimestamp(i)));
             }
         }
 
-        for (PatientRecord record : records) {
-            if (record.getRecordType().equals("Saturation") && record.getMeasurementValue() < 92) {
-                alerts.add(new Alert(patient.getId(), "Low Saturation Alert: Blood Saturation Level Too Low", record.getTimestamp()));
+        for (int i = 0; i < saturation.size(); i++) {
+            if (saturation.getValue(i) < 92) {
+                alerts.add(new Alert(patient.getId(), AlertCondition.LOW_SATURATION, saturation.getTimestamp(i)));
             }
         }
 
         return alerts;
     }
 
-    private boolean checkRapidDrop(List<Double> readings) {
-        Double start = readings.get(0);
-        Double end = readings.get(readings.size() - 1);
-        return start - end >= 5;
+    @Override
+    public int[] getMetricIds() {
+        return METRIC_IDS.clone();
+    }
+
+    @Override
+    public void removePatient(int patientId) {
+        windows.remove(patientId);
+    }
+
+    /**
+     * Keeps the last ten saturation readings per patient in a ring buffer and
+     * compares the oldest with the newest one.
+     */
+    @Override
+    public List<Alert> checkRecord(Patient patient, int metricId, double measurementValue, long timestamp) {
+        if (metricId != MetricRegistry.SATURATION) {
+            return Collections.emptyList();
+        }
+        SaturationWindow window = windows.computeIfAbsent(patient.getPatientId(), id -> new SaturationWindow());
+        List<Alert> alerts = new ArrayList<>(2);
+        synchronized (window) {
+            if (window.add(measurementValue)) {
+                alerts.add(new Alert(patient.getId(), AlertCondition.RAPID_DROP, timestamp));
+            }
+        }
+        if (measurementValue < 92) {
+            alerts.add(new Alert(patient.getId(), AlertCondition.LOW_SATURATION, timestamp));
+        }
+        return alerts;
+    }
+
+    private static class SaturationWindow {
+        private final double[] values = new double[WINDOW_SIZE];
+        private int next; // slot of the oldest value once the window is full
+        private int count;
+
+        /**
+         * Adds a reading and reports whether the window shows a rapid drop.
+         */
+        private boolean add(double value) {
+            values[next] = value;
+            next = (next + 1) % WINDOW_SIZE;
+            count = Math.min(count + 1, WINDOW_SIZE);
+            return count == WINDOW_SIZE && values[next] - value >= 5;
+        }
     }
 }
@@ -1,7 +1,5 @@
 package com.cardio_generator;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import com.cardio_generator.generators.AlertGenerator;
@@ -10,8 +8,13 @@ import com.cardio_generator.generators.BloodPressureDataGenerator;
 import com.cardio_generator.generators.BloodSaturationDataGenerator;
 import com.cardio_generator.generators.BloodLevelsDataGenerator;
 import com.cardio_generator.generators.ECGDataGenerator;
+import com.cardio_generator.generators.PatientRandomStreams;
+import com.cardio_generator.outputs.BatchedFileOutputStrategy;
+import com.cardio_generator.outputs.BinarySegmentOutputStrategy;
+import com.cardio_generator.outputs.CompositeOutputStrategy;
 import com.cardio_generator.outputs.ConsoleOutputStrategy;
 import com.cardio_generator.outputs.fileOutputStrategy;
+import com.cardio_generator.outputs.NioTcpOutputStrategy;
 import com.cardio_generator.outputs.OutputStrategy;
 import com.cardio_generator.outputs.TcpOutputStrategy;
 import com.cardio_generator.outputs.WebSocketOutputStrategy;
@@ -19,6 +22,7 @@ import com.cardio_generator.outputs.WebSocketOutputStrategy;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
+import java.util.SplittableRandom;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -33,11 +37,18 @@ import java.util.ArrayList;
 public class HealthDataSimulator {
 
     private static HealthDataSimulator instance; // Singleton instance
+    private static final int TCP_CLIENT_BUFFER_BYTES = 256 * 1024; // Buffer of each tcp-nio client
+    private static final int OUTPUT_QUEUE_CAPACITY = 65536; // Samples waiting for each output when several are given
 
     private int patientCount = 50; // Default number of patients
-    private ScheduledExecutorService scheduler;
+    private int workerThreads = Runtime.getRuntime().availableProcessors(); // Threads running the generators
+    private TickScheduler scheduler;
     private OutputStrategy outputStrategy = new ConsoleOutputStrategy(); // Default output strategy
-    private final Random random = new Random();
+    private long seed = PatientRandomStreams.randomSeed(); // All random values of a run derive from it
+    private long flushIntervalMillis = 1000; // Flush interval of the batched file output
+    private BatchedFileOutputStrategy.FsyncPolicy fsyncPolicy = BatchedFileOutputStrategy.FsyncPolicy.NEVER;
+    private long webSocketBatchMillis = 0; // Batch window of the WebSocket output, 0 sends text frames
+    private NioTcpOutputStrategy.SlowClientPolicy slowClientPolicy = NioTcpOutputStrategy.SlowClientPolicy.DROP;
 
     /**
      * Private constructor to prevent instantiation from outside.
@@ -67,18 +78,22 @@ public class HealthDataSimulator {
         HealthDataSimulator simulator = HealthDataSimulator.getInstance();
         simulator.parseArguments(args);
 
-        simulator.scheduler = Executors.newScheduledThreadPool(simulator.patientCount * 4);
+        simulator.scheduler = new TickScheduler(simulator.workerThreads, simulator.outputStrategy);
 
+        SplittableRandom seeds = new SplittableRandom(simulator.seed);
+        Random random = new Random(seeds.nextLong());
         List<Integer> patientIds = simulator.initializePatientIds(simulator.patientCount);
-        Collections.shuffle(patientIds); // Randomize the order of patient IDs
+        Collections.shuffle(patientIds, random); // Randomize the order of patient IDs
 
-        simulator.scheduleTasksForPatients(patientIds);
+        simulator.scheduleTasksForPatients(patientIds, seeds, random);
+        simulator.scheduler.start();
     }
 
     // Other methods remain unchanged
     // ...
 
     private void parseArguments(String[] args) throws IOException {
+        List<String> outputArgs = new ArrayList<>(); // created after all options are known
         for (int i = 0; i < args.length; i++) {
             switch (args[i]) {
                 case "-h":
@@ -97,46 +112,141 @@ public class HealthDataSimulator {
                     break;
                 case "--output":
                     if (i + 1 < args.length) {
-                        String outputArg = args[++i];
-                        if (outputArg.equals("console")) {
-                            outputStrategy = new ConsoleOutputStrategy();
-                        } else if (outputArg.startsWith("file:")) {
-                            String baseDirectory = outputArg.substring(5);
-                            Path outputPath = Paths.get(baseDirectory);
-                            if (!Files.exists(outputPath)) {
-                                Files.createDirectories(outputPath);
-                            }
-                            outputStrategy = new fileOutputStrategy(baseDirectory);
-                        } else if (outputArg.startsWith("websocket:")) {
-                            try {
-                                int port = Integer.parseInt(outputArg.substring(10));
-                                // Initialize your WebSocket output strategy here
-                                outputStrategy = new WebSocketOutputStrategy(port);
-                                System.out.println("WebSocket output will be on port: " + port);
-                            } catch (NumberFormatException e) {
-                                System.err.println(
-                                        "Invalid port for WebSocket output. Please specify a valid port number.");
-                            }
-                        } else if (outputArg.startsWith("tcp:")) {
-                            try {
-                                int port = Integer.parseInt(outputArg.substring(4));
-                                // Initialize your TCP socket output strategy here
-                                outputStrategy = new TcpOutputStrategy(port);
-                                System.out.println("TCP socket output will be on port: " + port);
-                            } catch (NumberFormatException e) {
-                                System.err.println("Invalid port for TCP output. Please specify a valid port number.");
-                            }
-                        } else {
-                            System.err.println("Unknown output type. Using default (console).");
+                        outputArgs.add(args[++i]);
+                    }
+                    break;
+                case "--flush-interval":
+                    if (i + 1 < args.length) {
+                        try {
+                            flushIntervalMillis = Long.parseLong(args[++i]);
+                        } catch (NumberFormatException e) {
+                            System.err.println(
+                                    "Error: Invalid flush interval. Using default value: " + flushIntervalMillis);
+                        }
+                    }
+                    break;
+                case "--worker-threads":
+                    if (i + 1 < args.length) {
+                        try {
+                            workerThreads = Math.max(1, Integer.parseInt(args[++i]));
+                        } catch (NumberFormatException e) {
+                            System.err.println(
+                                    "Error: Invalid number of worker threads. Using default value: " + workerThreads);
                         }
                     }
                     break;
+                case "--websocket-batch":
+                    if (i + 1 < args.length) {
+                        try {
+                            webSocketBatchMillis = Math.max(0, Long.parseLong(args[++i]));
+                        } catch (NumberFormatException e) {
+                            System.err.println(
+                                    "Error: Invalid WebSocket batch window. Using default value: " + webSocketBatchMillis);
+                        }
+                    }
+                    break;
+                case "--slow-client":
+                    if (i + 1 < args.length) {
+                        try {
+                            slowClientPolicy = NioTcpOutputStrategy.SlowClientPolicy.valueOf(args[++i].toUpperCase());
+                        } catch (IllegalArgumentException e) {
+                            System.err.println("Error: Invalid slow client policy. Using default value: "
+                                    + slowClientPolicy.name().toLowerCase());
+                        }
+                    }
+                    break;
+                case "--seed":
+                    if (i + 1 < args.length) {
+                        try {
+                            seed = Long.parseLong(args[++i]);
+                        } catch (NumberFormatException e) {
+                            System.err.println("Error: Invalid seed. Using a random seed.");
+                        }
+                    }
+                    break;
+                case "--fsync":
+                    fsyncPolicy = BatchedFileOutputStrategy.FsyncPolicy.ON_FLUSH;
+                    break;
                 default:
                     System.err.println("Unknown option '" + args[i] + "'");
                     printHelp();
                     System.exit(1);
             }
         }
+        List<OutputStrategy> outputs = new ArrayList<>();
+        for (String outputArg : outputArgs) {
+            OutputStrategy output = createOutput(outputArg);
+            if (output != null) {
+                outputs.add(output);
+            }
+        }
+        if (outputs.size() == 1) {
+            outputStrategy = outputs.get(0);
+            if (outputStrategy instanceof AutoCloseable) {
+                AutoCloseable closeable = (AutoCloseable) outputStrategy;
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> close(closeable))); // write what is still buffered
+            }
+        } else if (outputs.size() > 1) {
+            CompositeOutputStrategy compositeOutput = new CompositeOutputStrategy(outputs, OUTPUT_QUEUE_CAPACITY);
+            Runtime.getRuntime().addShutdownHook(new Thread(compositeOutput::close)); // delivers queued samples first
+            outputStrategy = compositeOutput;
+        }
+    }
+
+    private OutputStrategy createOutput(String outputArg) throws IOException {
+        if (outputArg.equals("console")) {
+            return new ConsoleOutputStrategy();
+        } else if (outputArg.startsWith("file:")) {
+            String baseDirectory = outputArg.substring(5);
+            Path outputPath = Paths.get(baseDirectory);
+            if (!Files.exists(outputPath)) {
+                Files.createDirectories(outputPath);
+            }
+            return new fileOutputStrategy(baseDirectory);
+        } else if (outputArg.startsWith("batched-file:")) {
+            return new BatchedFileOutputStrategy(outputArg.substring(13), flushIntervalMillis, fsyncPolicy);
+        } else if (outputArg.startsWith("binary:")) {
+            return new BinarySegmentOutputStrategy(outputArg.substring(7));
+        } else if (outputArg.startsWith("websocket:")) {
+            try {
+                int port = Integer.parseInt(outputArg.substring(10));
+                WebSocketOutputStrategy webSocketOutput = new WebSocketOutputStrategy(port, webSocketBatchMillis);
+                System.out.println("WebSocket output will be on port: " + port);
+                return webSocketOutput;
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid port for WebSocket output. Please specify a valid port number.");
+            }
+        } else if (outputArg.startsWith("tcp-nio:")) {
+            try {
+                int port = Integer.parseInt(outputArg.substring(8));
+                NioTcpOutputStrategy nioTcpOutput = new NioTcpOutputStrategy(port, slowClientPolicy, TCP_CLIENT_BUFFER_BYTES);
+                System.out.println("TCP socket output will be on port: " + port);
+                return nioTcpOutput;
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid port for TCP output. Please specify a valid port number.");
+            }
+        } else if (outputArg.startsWith("tcp:")) {
+            try {
+                int port = Integer.parseInt(outputArg.substring(4));
+                // Initialize your TCP socket output strategy here
+                TcpOutputStrategy tcpOutput = new TcpOutputStrategy(port);
+                System.out.println("TCP socket output will be on port: " + port);
+                return tcpOutput;
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid port for TCP output. Please specify a valid port number.");
+            }
+        } else {
+            System.err.println("Unknown output type. Using default (console).");
+        }
+        return null;
+    }
+
+    private static void close(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            System.err.println("Error closing output: " + e.getMessage());
+        }
     }
 
     private void printHelp() {
@@ -145,11 +255,28 @@ public class HealthDataSimulator {
         System.out.println("  -h                       Show help and exit.");
         System.out.println(
                 "  --patient-count <count>  Specify the number of patients to simulate data for (default: 50).");
+        System.out.println("  --worker-threads <count> Number of threads running the generators (default: number of CPUs).");
+        System.out.println("  --flush-interval <ms>    Flush interval of the batched file output (default: 1000).");
+        System.out.println("  --fsync                  Force every flushed batch of the batched file output to disk.");
+        System.out.println("  --seed <number>          Seed of all generated values and of the schedule, so runs can be");
+        System.out.println("                             replayed (default: a different seed per run).");
+        System.out.println("  --websocket-batch <ms>   Broadcast the WebSocket output as one binary frame per window");
+        System.out.println("                             of this length, e.g. 10-50 (default: 0, one text frame per sample).");
+        System.out.println("  --slow-client <policy>   What the tcp-nio output does with clients that read too slowly:");
+        System.out.println("                             'drop' skips lines (default), 'disconnect' closes the connection,");
+        System.out.println("                             'block' waits for the client.");
         System.out.println("  --output <type>          Define the output method. Options are:");
         System.out.println("                             'console' for console output,");
         System.out.println("                             'file:<directory>' for file output,");
+        System.out.println("                             'batched-file:<directory>' for file output written in batches");
+        System.out.println("                               by a background thread,");
+        System.out.println("                             'binary:<directory>' for compact binary segment files,");
         System.out.println("                             'websocket:<port>' for WebSocket output,");
-        System.out.println("                             'tcp:<port>' for TCP socket output.");
+        System.out.println("                             'tcp:<port>' for TCP socket output,");
+        System.out.println("                             'tcp-nio:<port>' for TCP socket output to any number of clients.");
+        System.out.println("                           May be given several times to send every sample to all outputs;");
+        System.out.println("                             each output then has its own queue and thread and drops samples");
+        System.out.println("                             when it falls behind instead of delaying the others.");
         System.out.println("Example:");
         System.out.println("  java HealthDataSimulator --patient-count 100 --output websocket:8080");
         System.out.println(
@@ -164,23 +291,21 @@ public class HealthDataSimulator {
         return patientIds;
     }
 
-    private void scheduleTasksForPatients(List<Integer> patientIds) {
-        ECGDataGenerator ecgDataGenerator = new ECGDataGenerator(patientCount);
-        BloodSaturationDataGenerator bloodSaturationDataGenerator = new BloodSaturationDataGenerator(patientCount);
-        BloodPressureDataGenerator bloodPressureDataGenerator = new BloodPressureDataGenerator(patientCount);
-        BloodLevelsDataGenerator bloodLevelsDataGenerator = new BloodLevelsDataGenerator(patientCount);
-        AlertGenerator alertGenerator = new AlertGenerator(patientCount);
-
-        for (int patientId : patientIds) {
-            scheduleTask(() -> ecgDataGenerator.generate(patientId, outputStrategy), 1, TimeUnit.SECONDS);
-            scheduleTask(() -> bloodSaturationDataGenerator.generate(patientId, outputStrategy), 1, TimeUnit.SECONDS);
-            scheduleTask(() -> bloodPressureDataGenerator.generate(patientId, outputStrategy), 1, TimeUnit.MINUTES);
-            scheduleTask(() -> bloodLevelsDataGenerator.generate(patientId, outputStrategy), 2, TimeUnit.MINUTES);
-            scheduleTask(() -> alertGenerator.generate(patientId, outputStrategy), 20, TimeUnit.SECONDS);
-        }
-    }
+    private void scheduleTasksForPatients(List<Integer> patientIds, SplittableRandom seeds, Random random) {
+        // Every generator gets its own seed, so their streams are independent of each other
+        ECGDataGenerator ecgDataGenerator = new ECGDataGenerator(patientCount, seeds.nextLong());
+        BloodSaturationDataGenerator bloodSaturationDataGenerator =
+                new BloodSaturationDataGenerator(patientCount, seeds.nextLong());
+        BloodPressureDataGenerator bloodPressureDataGenerator =
+                new BloodPressureDataGenerator(patientCount, seeds.nextLong());
+        BloodLevelsDataGenerator bloodLevelsDataGenerator = new BloodLevelsDataGenerator(patientCount, seeds.nextLong());
+        AlertGenerator alertGenerator = new AlertGenerator(patientCount, seeds.nextLong());
 
-    private void scheduleTask(Runnable task, long period, TimeUnit timeUnit) {
-        scheduler.scheduleAtFixedRate(task, random.nextInt(5), period, timeUnit);
+        int[] ids = patientIds.stream().mapToInt(Integer::intValue).toArray();
+        scheduler.schedule(ecgDataGenerator, ids, 1, TimeUnit.SECONDS, random);
+        scheduler.schedule(bloodSaturationDataGenerator, ids, 1, TimeUnit.SECONDS, random);
+        scheduler.schedule(bloodPressureDataGenerator, ids, 1, TimeUnit.MINUTES, random);
+        scheduler.schedule(bloodLevelsDataGenerator, ids, 2, TimeUnit.MINUTES, random);
+        scheduler.schedule(alertGenerator, ids, 20, TimeUnit.SECONDS, random);
     }
 }
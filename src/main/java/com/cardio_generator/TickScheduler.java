@@ -0,0 +1,137 @@
+package com.cardio_generator;
+
+import com.cardio_generator.generators.PatientDataGenerator;
+import com.cardio_generator.outputs.OutputStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the data generators for all patients with a bounded number of threads.
+ * A single tick thread advances a timing wheel every {@value #TICK_MILLIS} ms.
+ * Every generator has one wheel slot per tick of its period and each patient
+ * is placed in a random slot, which spreads the patients evenly over the
+ * period. On every tick the patients of the current slot are handed in batches
+ * to a fixed pool of worker threads, which generate each batch with one
+ * {@link PatientDataGenerator#generateBatch} call.
+ * When the workers fall behind, the tick thread runs batches itself, which
+ * delays the next tick instead of queueing unbounded work.
+ */
+public class TickScheduler {
+    static final long TICK_MILLIS = 100;
+    private static final int BATCH_SIZE = 512;
+    private static final int QUEUED_BATCHES_PER_WORKER = 64;
+
+    private final OutputStrategy outputStrategy;
+    private final List<WheelEntry> entries = new ArrayList<>();
+    private final ScheduledExecutorService ticker;
+    private final ThreadPoolExecutor workers;
+    private long tick;
+
+    /**
+     * Constructs a scheduler with the given number of worker threads.
+     *
+     * @param workerThreads  the number of threads running the generators
+     * @param outputStrategy the output strategy passed to the generators
+     */
+    public TickScheduler(int workerThreads, OutputStrategy outputStrategy) {
+        this.outputStrategy = outputStrategy;
+        this.ticker = Executors.newSingleThreadScheduledExecutor(namedThreads("simulator-tick"));
+        this.workers = new ThreadPoolExecutor(workerThreads, workerThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workerThreads * QUEUED_BATCHES_PER_WORKER), namedThreads("simulator-worker"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Schedules a generator to run for every given patient once per period.
+     *
+     * @param generator  the generator to run
+     * @param patientIds the patients to generate data for
+     * @param period     the time between two runs for the same patient
+     * @param timeUnit   the unit of the period
+     * @param random     the source of the random slot of each patient
+     */
+    public synchronized void schedule(PatientDataGenerator generator, int[] patientIds, long period, TimeUnit timeUnit,
+            Random random) {
+        int periodTicks = (int) Math.max(1, timeUnit.toMillis(period) / TICK_MILLIS);
+        int[] slots = new int[patientIds.length];
+        int[] slotSizes = new int[periodTicks];
+        for (int i = 0; i < patientIds.length; i++) {
+            slots[i] = random.nextInt(periodTicks);
+            slotSizes[slots[i]]++;
+        }
+        int[][] patientsBySlot = new int[periodTicks][];
+        for (int slot = 0; slot < periodTicks; slot++) {
+            patientsBySlot[slot] = new int[slotSizes[slot]];
+            slotSizes[slot] = 0; // reused as fill position
+        }
+        for (int i = 0; i < patientIds.length; i++) {
+            patientsBySlot[slots[i]][slotSizes[slots[i]]++] = patientIds[i];
+        }
+        entries.add(new WheelEntry(generator, patientsBySlot));
+    }
+
+    /**
+     * Starts advancing the wheel.
+     */
+    public void start() {
+        ticker.scheduleAtFixedRate(this::advance, 0, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the tick thread and the workers; batches already handed out may
+     * still finish.
+     */
+    public void shutdown() {
+        ticker.shutdownNow();
+        workers.shutdown();
+    }
+
+    /**
+     * Waits until all batches handed out before {@link #shutdown()} are done.
+     *
+     * @param timeout  the maximum time to wait
+     * @param timeUnit the unit of the timeout
+     * @return true if the workers finished, false if the timeout elapsed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitTermination(long timeout, TimeUnit timeUnit) throws InterruptedException {
+        return workers.awaitTermination(timeout, timeUnit);
+    }
+
+    private synchronized void advance() {
+        for (WheelEntry entry : entries) {
+            int[] patients = entry.patientsBySlot[(int) (tick % entry.patientsBySlot.length)];
+            for (int from = 0; from < patients.length; from += BATCH_SIZE) {
+                int start = from;
+                int end = Math.min(from + BATCH_SIZE, patients.length);
+                workers.execute(() -> entry.generator.generateBatch(patients, start, end, System.currentTimeMillis(),
+                        outputStrategy));
+            }
+        }
+        tick++;
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> new Thread(runnable, prefix + "-" + count.incrementAndGet());
+    }
+
+    private static class WheelEntry {
+        private final PatientDataGenerator generator;
+        private final int[][] patientsBySlot; // one slot per tick of the generator's period
+
+        private WheelEntry(PatientDataGenerator generator, int[][] patientsBySlot) {
+            this.generator = generator;
+            this.patientsBySlot = patientsBySlot;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.cardio_generator.generators;
 //import statements together
-import java.util.Random;
+import java.util.SplittableRandom;
+import com.cardio_generator.outputs.BinarySegmentFormat;
 import com.cardio_generator.outputs.OutputStrategy;
 
 /**
@@ -10,8 +11,8 @@ import com.cardio_generator.outputs.OutputStrategy;
  */
 public class AlertGenerator implements PatientDataGenerator {
 
-    // randomGenerator name changed to follow naming convention for constants
-    public static final Random RANDOM_GENERATOR = new Random();
+    // one random stream per patient, see PatientRandomStreams
+    private final SplittableRandom[] randoms;
     // changed name to be in camelCase and put comment above
     // false = resolved, true = pressed
     private boolean[] alertStates;
@@ -27,22 +28,23 @@ public class AlertGenerator implements PatientDataGenerator {
     @Override
     public void generate(int patientId, OutputStrategy outputStrategy) {
         try {
+            SplittableRandom random = randoms[patientId];
             if (alertStates[patientId]) {
                 // 90% chance to resolve (put comment above)
-                if (RANDOM_GENERATOR.nextDouble() < 0.9) {
+                if (random.nextDouble() < 0.9) {
                     alertStates[patientId] = false;
                     // Output the alert
-                    outputStrategy.output(patientId, System.currentTimeMillis(), "Alert", "resolved");
+                    outputStrategy.output(patientId, System.currentTimeMillis(), BinarySegmentFormat.ALERT, 0); // resolved
                 }
             } else {
                 double Lambda = 0.1; // Average rate (alerts per period), adjust based on desired frequency
                 double p = -Math.expm1(-Lambda); // Probability of at least one alert in the period
-                boolean alertTriggered = RANDOM_GENERATOR.nextDouble() < p;
+                boolean alertTriggered = random.nextDouble() < p;
 
                 if (alertTriggered) {
                     alertStates[patientId] = true;
                     // Output the alert
-                    outputStrategy.output(patientId, System.currentTimeMillis(), "Alert", "triggered");
+                    outputStrategy.output(patientId, System.currentTimeMillis(), BinarySegmentFormat.ALERT, 1); // triggered
                 }
             }
             // The catch block should provide more specific exception handling, rather than catching a generic Exception
@@ -52,6 +54,30 @@ public class AlertGenerator implements PatientDataGenerator {
         }
     }
 
+    /**
+     * Updates the alert state of every patient in the range in one loop, outputting only the states that changed.
+     */
+    @Override
+    public void generateBatch(int[] patientIds, int from, int to, long timestamp, OutputStrategy outputStrategy) {
+        boolean[] states = alertStates;
+        double triggerProbability = -Math.expm1(-0.1); // at least one alert in the period, see generate
+        for (int i = from; i < to; i++) {
+            int patientId = patientIds[i];
+            boolean triggered = states[patientId];
+            boolean changed = randoms[patientId].nextDouble() < (triggered ? 0.9 : triggerProbability);
+            if (!changed) {
+                continue;
+            }
+            states[patientId] = !triggered;
+            try {
+                outputStrategy.output(patientId, timestamp, BinarySegmentFormat.ALERT, triggered ? 0 : 1);
+            } catch (Exception e) {
+                System.err.println("An error occurred while generating alert data for patient " + patientId);
+                e.printStackTrace();
+            }
+        }
+    }
+
     /**
      * Constructs a new AlertGenerator with the specified number of patients.
      * Initializes the alert states for each patient.
@@ -59,6 +85,18 @@ public class AlertGenerator implements PatientDataGenerator {
      * @param patientCount the number of patients for which to generate alert data
      */
     public AlertGenerator(int patientCount) {
+        this(patientCount, PatientRandomStreams.randomSeed());
+    }
+
+    /**
+     * Constructs a new AlertGenerator whose random values are derived from the given seed,
+     * so runs with the same seed trigger the same alerts per patient.
+     *
+     * @param patientCount the number of patients for which to generate alert data
+     * @param seed         the seed of the per-patient random streams
+     */
+    public AlertGenerator(int patientCount, long seed) {
         alertStates = new boolean[patientCount + 1];
+        randoms = PatientRandomStreams.create(patientCount, seed);
     }
 }
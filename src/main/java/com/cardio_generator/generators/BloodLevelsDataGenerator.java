@@ -1,16 +1,29 @@
 package com.cardio_generator.generators;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
+import com.cardio_generator.outputs.BinarySegmentFormat;
 import com.cardio_generator.outputs.OutputStrategy;
 
 public class BloodLevelsDataGenerator implements PatientDataGenerator {
-    private static final Random random = new Random();
+    private final SplittableRandom[] randoms; // one stream per patient
     private final double[] baselineCholesterol;
     private final double[] baselineWhiteCells;
     private final double[] baselineRedCells;
 
     public BloodLevelsDataGenerator(int patientCount) {
+        this(patientCount, PatientRandomStreams.randomSeed());
+    }
+
+    /**
+     * Constructs a generator whose random values are derived from the given
+     * seed, so runs with the same seed produce the same values per patient.
+     *
+     * @param patientCount the number of patients for which to generate blood levels data
+     * @param seed         the seed of the per-patient random streams
+     */
+    public BloodLevelsDataGenerator(int patientCount, long seed) {
+        randoms = PatientRandomStreams.create(patientCount, seed);
         // Initialize arrays to store baseline values for each patient
         baselineCholesterol = new double[patientCount + 1];
         baselineWhiteCells = new double[patientCount + 1];
@@ -18,6 +31,7 @@ public class BloodLevelsDataGenerator implements PatientDataGenerator {
 
         // Generate baseline values for each patient
         for (int i = 1; i <= patientCount; i++) {
+            SplittableRandom random = randoms[i];
             baselineCholesterol[i] = 150 + random.nextDouble() * 50; // Initial random baseline
             baselineWhiteCells[i] = 4 + random.nextDouble() * 6; // Initial random baseline
             baselineRedCells[i] = 4.5 + random.nextDouble() * 1.5; // Initial random baseline
@@ -27,19 +41,40 @@ public class BloodLevelsDataGenerator implements PatientDataGenerator {
     @Override
     public void generate(int patientId, OutputStrategy outputStrategy) {
         try {
+            SplittableRandom random = randoms[patientId];
             // Generate values around the baseline for realism
             double cholesterol = baselineCholesterol[patientId] + (random.nextDouble() - 0.5) * 10; // Small variation
             double whiteCells = baselineWhiteCells[patientId] + (random.nextDouble() - 0.5) * 1; // Small variation
             double redCells = baselineRedCells[patientId] + (random.nextDouble() - 0.5) * 0.2; // Small variation
 
             // Output the generated values
-            outputStrategy.output(patientId, System.currentTimeMillis(), "Cholesterol", Double.toString(cholesterol));
-            outputStrategy.output(patientId, System.currentTimeMillis(), "WhiteBloodCells",
-                    Double.toString(whiteCells));
-            outputStrategy.output(patientId, System.currentTimeMillis(), "RedBloodCells", Double.toString(redCells));
+            outputStrategy.output(patientId, System.currentTimeMillis(), BinarySegmentFormat.CHOLESTEROL, cholesterol);
+            outputStrategy.output(patientId, System.currentTimeMillis(), BinarySegmentFormat.WHITE_BLOOD_CELLS,
+                    whiteCells);
+            outputStrategy.output(patientId, System.currentTimeMillis(), BinarySegmentFormat.RED_BLOOD_CELLS, redCells);
         } catch (Exception e) {
             System.err.println("An error occurred while generating blood levels data for patient " + patientId);
             e.printStackTrace(); // This will print the stack trace to help identify where the error occurred.
         }
     }
+
+    @Override
+    public void generateBatch(int[] patientIds, int from, int to, long timestamp, OutputStrategy outputStrategy) {
+        // The levels vary around fixed baselines, so there is no state to update before outputting
+        for (int i = from; i < to; i++) {
+            int patientId = patientIds[i];
+            try {
+                SplittableRandom random = randoms[patientId];
+                double cholesterol = baselineCholesterol[patientId] + (random.nextDouble() - 0.5) * 10;
+                double whiteCells = baselineWhiteCells[patientId] + (random.nextDouble() - 0.5) * 1;
+                double redCells = baselineRedCells[patientId] + (random.nextDouble() - 0.5) * 0.2;
+                outputStrategy.output(patientId, timestamp, BinarySegmentFormat.CHOLESTEROL, cholesterol);
+                outputStrategy.output(patientId, timestamp, BinarySegmentFormat.WHITE_BLOOD_CELLS, whiteCells);
+                outputStrategy.output(patientId, timestamp, BinarySegmentFormat.RED_BLOOD_CELLS, redCells);
+            } catch (Exception e) {
+                System.err.println("An error occurred while generating blood levels data for patient " + patientId);
+                e.printStackTrace();
+            }
+        }
+    }
 }
@@ -1,21 +1,35 @@
 package com.cardio_generator.generators;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
+import com.cardio_generator.outputs.BinarySegmentFormat;
 import com.cardio_generator.outputs.OutputStrategy;
 
 public class BloodPressureDataGenerator implements PatientDataGenerator {
-    private static final Random random = new Random();
+    private final SplittableRandom[] randoms; // one stream per patient
 
     private int[] lastSystolicValues;
     private int[] lastDiastolicValues;
 
     public BloodPressureDataGenerator(int patientCount) {
+        this(patientCount, PatientRandomStreams.randomSeed());
+    }
+
+    /**
+     * Constructs a generator whose random values are derived from the given
+     * seed, so runs with the same seed produce the same values per patient.
+     *
+     * @param patientCount the number of patients for which to generate blood pressure data
+     * @param seed         the seed of the per-patient random streams
+     */
+    public BloodPressureDataGenerator(int patientCount, long seed) {
+        randoms = PatientRandomStreams.create(patientCount, seed);
         lastSystolicValues = new int[patientCount + 1];
         lastDiastolicValues = new int[patientCount + 1];
 
         // Initialize with baseline values for each patient
         for (int i = 1; i <= patientCount; i++) {
+            SplittableRandom random = randoms[i];
             lastSystolicValues[i] = 110 + random.nextInt(20); // Random baseline between 110 and 130
             lastDiastolicValues[i] = 70 + random.nextInt(15); // Random baseline between 70 and 85
         }
@@ -24,6 +38,7 @@ public class BloodPressureDataGenerator implements PatientDataGenerator {
     @Override
     public void generate(int patientId, OutputStrategy outputStrategy) {
         try {
+            SplittableRandom random = randoms[patientId];
             int systolicVariation = random.nextInt(5) - 2; // -2, -1, 0, 1, or 2
             int diastolicVariation = random.nextInt(5) - 2;
             int newSystolicValue = lastSystolicValues[patientId] + systolicVariation;
@@ -34,13 +49,39 @@ public class BloodPressureDataGenerator implements PatientDataGenerator {
             lastSystolicValues[patientId] = newSystolicValue;
             lastDiastolicValues[patientId] = newDiastolicValue;
 
-            outputStrategy.output(patientId, System.currentTimeMillis(), "SystolicPressure",
-                    Double.toString(newSystolicValue));
-            outputStrategy.output(patientId, System.currentTimeMillis(), "DiastolicPressure",
-                    Double.toString(newDiastolicValue));
+            outputStrategy.output(patientId, System.currentTimeMillis(), BinarySegmentFormat.SYSTOLIC_PRESSURE,
+                    newSystolicValue);
+            outputStrategy.output(patientId, System.currentTimeMillis(), BinarySegmentFormat.DIASTOLIC_PRESSURE,
+                    newDiastolicValue);
         } catch (Exception e) {
             System.err.println("An error occurred while generating blood pressure data for patient " + patientId);
             e.printStackTrace(); // This will print the stack trace to help identify where the error occurred.
         }
     }
+
+    @Override
+    public void generateBatch(int[] patientIds, int from, int to, long timestamp, OutputStrategy outputStrategy) {
+        int[] systolicValues = lastSystolicValues;
+        int[] diastolicValues = lastDiastolicValues;
+        for (int i = from; i < to; i++) {
+            int patientId = patientIds[i];
+            SplittableRandom random = randoms[patientId];
+            int newSystolicValue = systolicValues[patientId] + random.nextInt(5) - 2;
+            int newDiastolicValue = diastolicValues[patientId] + random.nextInt(5) - 2;
+            systolicValues[patientId] = Math.min(Math.max(newSystolicValue, 90), 180);
+            diastolicValues[patientId] = Math.min(Math.max(newDiastolicValue, 60), 120);
+        }
+        for (int i = from; i < to; i++) {
+            int patientId = patientIds[i];
+            try {
+                outputStrategy.output(patientId, timestamp, BinarySegmentFormat.SYSTOLIC_PRESSURE,
+                        systolicValues[patientId]);
+                outputStrategy.output(patientId, timestamp, BinarySegmentFormat.DIASTOLIC_PRESSURE,
+                        diastolicValues[patientId]);
+            } catch (Exception e) {
+                System.err.println("An error occurred while generating blood pressure data for patient " + patientId);
+                e.printStackTrace();
+            }
+        }
+    }
 }
@@ -1,7 +1,8 @@
 package com.cardio_generator.generators;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
+import com.cardio_generator.outputs.BinarySegmentFormat;
 import com.cardio_generator.outputs.OutputStrategy;
 
 /**
@@ -10,7 +11,7 @@ import com.cardio_generator.outputs.OutputStrategy;
  * It simulates small fluctuations in blood saturation levels over time.
  */
 public class BloodSaturationDataGenerator implements PatientDataGenerator {
-    private static final Random random = new Random();
+    private final SplittableRandom[] randoms; // one stream per patient
     private int[] lastSaturationValues;
 
     /**
@@ -20,11 +21,23 @@ public class BloodSaturationDataGenerator implements PatientDataGenerator {
      * @param patientCount the number of patients for which to generate blood saturation data
      */
     public BloodSaturationDataGenerator(int patientCount) {
+        this(patientCount, PatientRandomStreams.randomSeed());
+    }
+
+    /**
+     * Constructs a new BloodSaturationDataGenerator whose random values are derived from the given seed,
+     * so runs with the same seed produce the same values per patient.
+     *
+     * @param patientCount the number of patients for which to generate blood saturation data
+     * @param seed         the seed of the per-patient random streams
+     */
+    public BloodSaturationDataGenerator(int patientCount, long seed) {
+        randoms = PatientRandomStreams.create(patientCount, seed);
         lastSaturationValues = new int[patientCount + 1];
 
         // Initialize with baseline saturation values for each patient
         for (int i = 1; i <= patientCount; i++) {
-            lastSaturationValues[i] = 95 + random.nextInt(6); // Initializes with a value between 95 and 100
+            lastSaturationValues[i] = 95 + randoms[i].nextInt(6); // Initializes with a value between 95 and 100
         }
     }
 
@@ -39,17 +52,39 @@ public class BloodSaturationDataGenerator implements PatientDataGenerator {
     public void generate(int patientId, OutputStrategy outputStrategy) {
         try {
             // Simulate blood saturation values
-            int variation = random.nextInt(3) - 1; // -1, 0, or 1 to simulate small fluctuations
+            int variation = randoms[patientId].nextInt(3) - 1; // -1, 0, or 1 to simulate small fluctuations
             int newSaturationValue = lastSaturationValues[patientId] + variation;
 
             // Ensure the saturation stays within a realistic and healthy range
             newSaturationValue = Math.min(Math.max(newSaturationValue, 90), 100);
             lastSaturationValues[patientId] = newSaturationValue;
-            outputStrategy.output(patientId, System.currentTimeMillis(), "Saturation",
-                    Double.toString(newSaturationValue) + "%");
+            outputStrategy.output(patientId, System.currentTimeMillis(), BinarySegmentFormat.SATURATION,
+                    newSaturationValue);
         } catch (Exception e) {
             System.err.println("An error occurred while generating blood saturation data for patient " + patientId);
             e.printStackTrace(); // This will print the stack trace to help identify where the error occurred.
         }
     }
+
+    /**
+     * Updates the saturation of every patient in the range first and outputs the new values afterwards.
+     */
+    @Override
+    public void generateBatch(int[] patientIds, int from, int to, long timestamp, OutputStrategy outputStrategy) {
+        int[] saturationValues = lastSaturationValues;
+        for (int i = from; i < to; i++) {
+            int patientId = patientIds[i];
+            int newSaturationValue = saturationValues[patientId] + randoms[patientId].nextInt(3) - 1;
+            saturationValues[patientId] = Math.min(Math.max(newSaturationValue, 90), 100);
+        }
+        for (int i = from; i < to; i++) {
+            int patientId = patientIds[i];
+            try {
+                outputStrategy.output(patientId, timestamp, BinarySegmentFormat.SATURATION, saturationValues[patientId]);
+            } catch (Exception e) {
+                System.err.println("An error occurred while generating blood saturation data for patient " + patientId);
+                e.printStackTrace();
+            }
+        }
+    }
 }
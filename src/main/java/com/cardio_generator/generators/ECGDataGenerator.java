@@ -1,19 +1,36 @@
 package com.cardio_generator.generators;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
+import com.cardio_generator.outputs.BinarySegmentFormat;
 import com.cardio_generator.outputs.OutputStrategy;
 
 public class ECGDataGenerator implements PatientDataGenerator {
-    private static final Random random = new Random();
+    private final SplittableRandom[] randoms; // one stream per patient
     private double[] lastEcgValues;
+    private final double[] waveformTimes; // per patient, in seconds; advanced per sample, not read from the clock
     private static final double PI = Math.PI;
+    private static final double SAMPLE_INTERVAL_SECONDS = 1.0; // the simulator generates ECG once per second
 
     public ECGDataGenerator(int patientCount) {
+        this(patientCount, PatientRandomStreams.randomSeed());
+    }
+
+    /**
+     * Constructs a generator whose random values are derived from the given
+     * seed, so runs with the same seed produce the same values per patient.
+     *
+     * @param patientCount the number of patients for which to generate ECG data
+     * @param seed         the seed of the per-patient random streams
+     */
+    public ECGDataGenerator(int patientCount, long seed) {
+        randoms = PatientRandomStreams.create(patientCount, seed);
         lastEcgValues = new double[patientCount + 1];
+        waveformTimes = new double[patientCount + 1];
         // Initialize the last ECG value for each patient
         for (int i = 1; i <= patientCount; i++) {
             lastEcgValues[i] = 0; // Initial ECG value can be set to 0
+            waveformTimes[i] = randoms[i].nextDouble() * 60; // Start each patient at a random point of the waveform
         }
     }
 
@@ -21,8 +38,8 @@ public class ECGDataGenerator implements PatientDataGenerator {
     public void generate(int patientId, OutputStrategy outputStrategy) {
         // TODO Check how realistic this data is and make it more realistic if necessary
         try {
-            double ecgValue = simulateEcgWaveform(patientId, lastEcgValues[patientId]);
-            outputStrategy.output(patientId, System.currentTimeMillis(), "ECG", Double.toString(ecgValue));
+            double ecgValue = simulateEcgWaveform(randoms[patientId], nextWaveformTime(patientId));
+            outputStrategy.output(patientId, System.currentTimeMillis(), BinarySegmentFormat.ECG, ecgValue);
             lastEcgValues[patientId] = ecgValue;
         } catch (Exception e) {
             System.err.println("An error occurred while generating ECG data for patient " + patientId);
@@ -30,10 +47,37 @@ public class ECGDataGenerator implements PatientDataGenerator {
         }
     }
 
-    private double simulateEcgWaveform(int patientId, double lastEcgValue) {
-        // Simplified ECG waveform generation based on sinusoids
+    @Override
+    public void generateBatch(int[] patientIds, int from, int to, long timestamp, OutputStrategy outputStrategy) {
+        double[] ecgValues = lastEcgValues;
+        for (int i = from; i < to; i++) {
+            int patientId = patientIds[i];
+            ecgValues[patientId] = simulateEcgWaveform(randoms[patientId], nextWaveformTime(patientId));
+        }
+        for (int i = from; i < to; i++) {
+            int patientId = patientIds[i];
+            try {
+                outputStrategy.output(patientId, timestamp, BinarySegmentFormat.ECG, ecgValues[patientId]);
+            } catch (Exception e) {
+                System.err.println("An error occurred while generating ECG data for patient " + patientId);
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Returns the patient's point of the waveform and advances it by one sample, so the same seed replays the
+     * same waveform regardless of when the samples are generated.
+     */
+    private double nextWaveformTime(int patientId) {
+        double t = waveformTimes[patientId];
+        waveformTimes[patientId] = t + SAMPLE_INTERVAL_SECONDS;
+        return t;
+    }
+
+    private static double simulateEcgWaveform(SplittableRandom random, double t) {
+        // Simplified ECG waveform generation based on sinusoids, t is the patient's waveform time in seconds
         double hr = 60.0 + random.nextDouble() * 20.0; // Simulate heart rate variability between 60 and 80 bpm
-        double t = System.currentTimeMillis() / 1000.0; // Use system time to simulate continuous time
         double ecgFrequency = hr / 60.0; // Convert heart rate to Hz
 
         // Simulate different components of the ECG signal
@@ -9,4 +9,22 @@ import com.cardio_generator.outputs.OutputStrategy;
  */
 public interface PatientDataGenerator {
     void generate(int patientId, OutputStrategy outputStrategy);
+
+    /**
+     * Generates data for a range of patients in one call, e.g. for all patients due in one tick.
+     * Implementations update their per-patient state for the whole range in one loop before
+     * outputting it, and stamp every sample of the range with the same timestamp.
+     * The default implementation calls {@link #generate(int, OutputStrategy)} for each patient.
+     *
+     * @param patientIds     the IDs of the patients
+     * @param from           the index of the first patient ID to generate data for
+     * @param to             the index after the last patient ID to generate data for
+     * @param timestamp      the timestamp of the generated samples
+     * @param outputStrategy the output strategy used to output the generated data
+     */
+    default void generateBatch(int[] patientIds, int from, int to, long timestamp, OutputStrategy outputStrategy) {
+        for (int i = from; i < to; i++) {
+            generate(patientIds[i], outputStrategy);
+        }
+    }
 }
@@ -0,0 +1,40 @@
+package com.cardio_generator.generators;
+
+import java.util.SplittableRandom;
+
+/**
+ * Creates one independent random number stream per patient for a generator.
+ * The streams are split in patient order from a single seed, so the same seed
+ * always gives every patient the same sequence of values. Each patient is
+ * generated by one thread at a time, so the streams need no synchronization
+ * and generator threads never contend on a shared random number generator.
+ */
+public final class PatientRandomStreams {
+
+    private PatientRandomStreams() {}
+
+    /**
+     * Creates the streams of patients 1 to patientCount.
+     *
+     * @param patientCount the number of patients
+     * @param seed         the seed all streams are derived from
+     * @return the streams indexed by patient ID; index 0 is unused
+     */
+    public static SplittableRandom[] create(int patientCount, long seed) {
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] streams = new SplittableRandom[patientCount + 1];
+        for (int i = 1; i <= patientCount; i++) {
+            streams[i] = root.split();
+        }
+        return streams;
+    }
+
+    /**
+     * Returns a seed for generators created without one.
+     *
+     * @return a seed that differs between runs
+     */
+    public static long randomSeed() {
+        return new SplittableRandom().nextLong();
+    }
+}
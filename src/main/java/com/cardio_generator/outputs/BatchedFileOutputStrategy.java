@@ -0,0 +1,226 @@
+package com.cardio_generator.outputs;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes patient data to one file per label, like {@link fileOutputStrategy},
+ * but without doing any file I/O on the generator threads.
+ * Samples are put into a bounded queue and a single writer thread appends them
+ * to files that stay open, flushing in batches at a fixed interval. Numeric
+ * readings are queued as numbers and only formatted by the writer thread.
+ * When the queue is full, {@link #output} waits until the writer catches up.
+ */
+public class BatchedFileOutputStrategy implements OutputStrategy, AutoCloseable {
+
+    /**
+     * Controls whether flushed data is also forced to the storage device.
+     */
+    public enum FsyncPolicy {
+        /** Leave it to the operating system to write flushed data to disk. */
+        NEVER,
+        /** Force every flushed batch to disk before the next one is written. */
+        ON_FLUSH
+    }
+
+    private static final int DEFAULT_CAPACITY = 65536;
+    private static final int MAX_BATCH_SIZE = 4096;
+
+    private final String baseDirectory;
+    private final long flushIntervalMillis;
+    private final FsyncPolicy fsyncPolicy;
+    private final SampleQueue queue;
+    private final Map<String, LabelFile> files = new HashMap<>(); // only used by the writer thread
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    /**
+     * Constructs a new BatchedFileOutputStrategy and starts its writer thread.
+     *
+     * @param baseDirectory       the base directory where the output files will be stored
+     * @param flushIntervalMillis how often buffered data is flushed, in milliseconds
+     * @param fsyncPolicy         whether flushed data is also forced to disk
+     * @throws IOException if the base directory cannot be created
+     */
+    public BatchedFileOutputStrategy(String baseDirectory, long flushIntervalMillis, FsyncPolicy fsyncPolicy)
+            throws IOException {
+        this(baseDirectory, flushIntervalMillis, fsyncPolicy, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a new BatchedFileOutputStrategy with a queue of the given size.
+     *
+     * @param baseDirectory       the base directory where the output files will be stored
+     * @param flushIntervalMillis how often buffered data is flushed, in milliseconds
+     * @param fsyncPolicy         whether flushed data is also forced to disk
+     * @param capacity            the number of samples that can wait to be written
+     * @throws IOException if the base directory cannot be created
+     */
+    public BatchedFileOutputStrategy(String baseDirectory, long flushIntervalMillis, FsyncPolicy fsyncPolicy,
+            int capacity) throws IOException {
+        this.baseDirectory = baseDirectory;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.fsyncPolicy = fsyncPolicy;
+        this.queue = new SampleQueue(capacity);
+        Files.createDirectories(Paths.get(baseDirectory)); // once, instead of for every sample
+
+        writerThread = new Thread(this::writeLoop, "batched-file-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Queues the patient data for the writer thread.
+     *
+     * @param patientId the ID of the patient whose data is being output
+     * @param timestamp the timestamp of the patient data
+     * @param label     the label associated with the patient data
+     * @param data      the patient data to be output
+     */
+    @Override
+    public void output(int patientId, long timestamp, String label, String data) {
+        if (!running) {
+            return;
+        }
+        try {
+            queue.put(patientId, timestamp, label, data);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Queues a numeric reading for the writer thread without formatting it.
+     *
+     * @param patientId the ID of the patient whose data is being output
+     * @param timestamp the timestamp of the patient data
+     * @param metricId  the metric of the reading
+     * @param value     the measured value
+     */
+    @Override
+    public void output(int patientId, long timestamp, int metricId, double value) {
+        if (!running) {
+            return;
+        }
+        try {
+            queue.put(patientId, timestamp, metricId, value);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stops accepting data, writes everything still queued and closes the files.
+     */
+    @Override
+    public void close() {
+        running = false; // not interrupted: that would close a channel in the middle of a write
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop() {
+        SampleQueue.Batch batch = new SampleQueue.Batch(MAX_BATCH_SIZE);
+        StringBuilder line = new StringBuilder(128);
+        long nextFlush = System.currentTimeMillis() + flushIntervalMillis;
+        while (running || !queue.isEmpty()) {
+            try {
+                long wait = Math.max(nextFlush - System.currentTimeMillis(), 0);
+                if (queue.drainTo(batch, running ? wait : 0, TimeUnit.MILLISECONDS) > 0) {
+                    write(batch, line);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (System.currentTimeMillis() >= nextFlush) {
+                flushAll();
+                nextFlush = System.currentTimeMillis() + flushIntervalMillis;
+            }
+        }
+        flushAll();
+        closeAll();
+    }
+
+    private void write(SampleQueue.Batch batch, StringBuilder line) {
+        for (int i = 0; i < batch.size(); i++) {
+            String label = batch.getLabel(i);
+            LabelFile file = files.computeIfAbsent(label, this::openFile);
+            if (file == null) {
+                continue; // the error has been reported, opening is retried with the next sample
+            }
+            line.setLength(0);
+            line.append("Patient ID: ").append(batch.getPatientId(i))
+                    .append(", Timestamp: ").append(batch.getTimestamp(i))
+                    .append(", Label: ").append(label)
+                    .append(", Data: ");
+            batch.appendData(i, line).append(System.lineSeparator());
+            try {
+                file.writer.append(line);
+            } catch (IOException e) {
+                System.err.println("Error writing to file for label " + label + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private LabelFile openFile(String label) {
+        try {
+            FileChannel channel = FileChannel.open(Paths.get(baseDirectory, label + ".txt"),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            Writer writer = new BufferedWriter(
+                    new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8), 64 * 1024);
+            return new LabelFile(channel, writer);
+        } catch (IOException e) {
+            System.err.println("Error opening file for label " + label + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void flushAll() {
+        for (Map.Entry<String, LabelFile> entry : files.entrySet()) {
+            try {
+                entry.getValue().writer.flush();
+                if (fsyncPolicy == FsyncPolicy.ON_FLUSH) {
+                    entry.getValue().channel.force(false);
+                }
+            } catch (IOException e) {
+                System.err.println("Error flushing file for label " + entry.getKey() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void closeAll() {
+        for (Map.Entry<String, LabelFile> entry : files.entrySet()) {
+            try {
+                entry.getValue().writer.close();
+            } catch (IOException e) {
+                System.err.println("Error closing file for label " + entry.getKey() + ": " + e.getMessage());
+            }
+        }
+        files.clear();
+    }
+
+    private static class LabelFile {
+        private final FileChannel channel;
+        private final Writer writer;
+
+        private LabelFile(FileChannel channel, Writer writer) {
+            this.channel = channel;
+            this.writer = writer;
+        }
+    }
+}
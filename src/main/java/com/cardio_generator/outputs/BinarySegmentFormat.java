@@ -0,0 +1,134 @@
+package com.cardio_generator.outputs;
+
+import com.data_management.MetricRegistry;
+
+/**
+ * Describes the binary segment files written by {@link BinarySegmentOutputStrategy}.
+ * A segment starts with an 8 byte header (magic number, format version and two
+ * reserved bytes) followed by fixed-width 22 byte records, all big-endian:
+ * <pre>
+ *   int    patient ID
+ *   long   timestamp in milliseconds since the Unix epoch
+ *   short  metric ID, the built-in ID of the {@link MetricRegistry}
+ *   double value
+ * </pre>
+ * Because every record has the same size, a reader can map a segment into
+ * memory and read the records without parsing text.
+ * The batched binary frames of {@link WebSocketOutputStrategy} use the same
+ * header and records.
+ */
+public final class BinarySegmentFormat {
+    public static final int MAGIC = 0x43534547; // "CSEG"
+    public static final short VERSION = 1;
+    public static final int HEADER_SIZE = 8;
+    public static final int RECORD_SIZE = 4 + 8 + 2 + 8;
+    public static final String FILE_SUFFIX = ".seg";
+
+    // Metric IDs of the labels written by the generators
+    public static final int ECG = MetricRegistry.ECG;
+    public static final int SATURATION = MetricRegistry.SATURATION;
+    public static final int SYSTOLIC_PRESSURE = MetricRegistry.SYSTOLIC_PRESSURE;
+    public static final int DIASTOLIC_PRESSURE = MetricRegistry.DIASTOLIC_PRESSURE;
+    public static final int CHOLESTEROL = MetricRegistry.CHOLESTEROL;
+    public static final int WHITE_BLOOD_CELLS = MetricRegistry.WHITE_BLOOD_CELLS;
+    public static final int RED_BLOOD_CELLS = MetricRegistry.RED_BLOOD_CELLS;
+    public static final int ALERT = MetricRegistry.ALERT;
+
+    private BinarySegmentFormat() {
+    }
+
+    /**
+     * Returns the metric ID stored for a label.
+     *
+     * @param label the label of the data, e.g., "ECG"
+     * @return the metric ID, or -1 if the label has no ID
+     */
+    public static short metricId(String label) {
+        for (short id = 0; id < MetricRegistry.builtInCount(); id++) {
+            if (MetricRegistry.labelOf(id).equals(label)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the number of metric IDs; IDs range from 0 to this number minus one.
+     *
+     * @return the number of metrics
+     */
+    public static int metricCount() {
+        return MetricRegistry.builtInCount();
+    }
+
+    /**
+     * Returns the label of a stored metric ID.
+     *
+     * @param metricId the metric ID read from a record
+     * @return the label, e.g., "ECG"
+     * @throws IllegalArgumentException if the ID is unknown
+     */
+    public static String metricLabel(short metricId) {
+        if (metricId < 0 || metricId >= MetricRegistry.builtInCount()) {
+            throw new IllegalArgumentException("Unknown metric ID: " + metricId);
+        }
+        return MetricRegistry.labelOf(metricId);
+    }
+
+    /**
+     * Converts the text data produced by the generators to the stored value.
+     * Saturation data carries a trailing "%" and alert data is stored as 1 for
+     * "triggered" and 0 for "resolved".
+     *
+     * @param data the data as passed to an output strategy
+     * @return the numeric value
+     * @throws NumberFormatException if the data is not a number
+     */
+    public static double parseValue(String data) {
+        switch (data) {
+            case "triggered":
+                return 1;
+            case "resolved":
+                return 0;
+            default:
+                if (data.endsWith("%")) {
+                    return Double.parseDouble(data.substring(0, data.length() - 1));
+                }
+                return Double.parseDouble(data);
+        }
+    }
+
+    /**
+     * Appends the text form of a value, as the generators used to pass it as
+     * data: saturation with a trailing "%", alerts as "triggered" or
+     * "resolved" and everything else as {@link Double#toString(double)}.
+     * This is the inverse of {@link #parseValue(String)}.
+     *
+     * @param text     the builder to append to
+     * @param metricId the metric ID of the value
+     * @param value    the value
+     * @return the builder
+     */
+    public static StringBuilder appendValue(StringBuilder text, int metricId, double value) {
+        switch (metricId) {
+            case SATURATION:
+                return text.append(value).append('%');
+            case ALERT:
+                return text.append(value != 0 ? "triggered" : "resolved");
+            default:
+                return text.append(value);
+        }
+    }
+
+    /**
+     * Returns the text form of a value, see
+     * {@link #appendValue(StringBuilder, int, double)}.
+     *
+     * @param metricId the metric ID of the value
+     * @param value    the value
+     * @return the value as data text
+     */
+    public static String formatValue(int metricId, double value) {
+        return appendValue(new StringBuilder(24), metricId, value).toString();
+    }
+}
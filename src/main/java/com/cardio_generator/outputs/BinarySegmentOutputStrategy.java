@@ -0,0 +1,207 @@
+package com.cardio_generator.outputs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes patient data as fixed-width binary records (see {@link BinarySegmentFormat})
+ * to append-only segment files in a directory.
+ * A new segment is started whenever the current one reaches its maximum size
+ * and existing segments are never modified. Records are collected in a buffer
+ * and written when it is full, on {@link #close()}, and otherwise once a second
+ * by a background thread, so records never wait longer than that even when no
+ * new data arrives. Records output after {@link #close()} are dropped, so no
+ * segment is started that nothing would close.
+ */
+public class BinarySegmentOutputStrategy implements OutputStrategy, AutoCloseable {
+    private static final long DEFAULT_MAX_SEGMENT_BYTES = 64L * 1024 * 1024;
+    private static final int BUFFER_RECORDS = 4096;
+    private static final long FLUSH_INTERVAL_MILLIS = 1000;
+
+    private final Path directory;
+    private final long maxSegmentBytes;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_RECORDS * BinarySegmentFormat.RECORD_SIZE);
+    private FileChannel segment;
+    private long segmentBytes;
+    private int nextSegmentNumber;
+    private final ScheduledExecutorService flusher;
+    private boolean closed;
+    private long droppedSamples; // output after close
+
+    /**
+     * Constructs a new BinarySegmentOutputStrategy using 64 MB segments.
+     *
+     * @param directory the directory where the segment files will be stored
+     * @throws IOException if the directory cannot be created or read
+     */
+    public BinarySegmentOutputStrategy(String directory) throws IOException {
+        this(directory, DEFAULT_MAX_SEGMENT_BYTES);
+    }
+
+    /**
+     * Constructs a new BinarySegmentOutputStrategy.
+     *
+     * @param directory       the directory where the segment files will be stored
+     * @param maxSegmentBytes the size at which a new segment file is started
+     * @throws IOException if the directory cannot be created or read
+     */
+    public BinarySegmentOutputStrategy(String directory, long maxSegmentBytes) throws IOException {
+        this.directory = Paths.get(directory);
+        this.maxSegmentBytes = maxSegmentBytes;
+        Files.createDirectories(this.directory);
+        // Continue after the segments of earlier runs instead of appending to them
+        try (DirectoryStream<Path> segments = Files.newDirectoryStream(this.directory, "segment-*" + BinarySegmentFormat.FILE_SUFFIX)) {
+            for (Path path : segments) {
+                String name = path.getFileName().toString();
+                try {
+                    int number = Integer.parseInt(name.substring(8, name.length() - BinarySegmentFormat.FILE_SUFFIX.length()));
+                    nextSegmentNumber = Math.max(nextSegmentNumber, number + 1);
+                } catch (NumberFormatException e) {
+                    // not one of our segment files
+                }
+            }
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "binary-segment-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushBuffered, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Adds the patient data to the current segment.
+     *
+     * @param patientId the ID of the patient whose data is being output
+     * @param timestamp the timestamp of the patient data
+     * @param label     the label associated with the patient data
+     * @param data      the patient data to be output
+     */
+    @Override
+    public void output(int patientId, long timestamp, String label, String data) {
+        short metricId = BinarySegmentFormat.metricId(label);
+        if (metricId < 0) {
+            System.err.println("Label " + label + " cannot be stored in a binary segment");
+            return;
+        }
+        double value;
+        try {
+            value = BinarySegmentFormat.parseValue(data);
+        } catch (NumberFormatException e) {
+            System.err.println("Data " + data + " for label " + label + " is not a number");
+            return;
+        }
+        output(patientId, timestamp, metricId, value);
+    }
+
+    /**
+     * Adds a numeric reading to the current segment without any text
+     * conversion.
+     *
+     * @param patientId the ID of the patient whose data is being output
+     * @param timestamp the timestamp of the patient data
+     * @param metricId  the metric of the reading
+     * @param value     the measured value
+     */
+    @Override
+    public synchronized void output(int patientId, long timestamp, int metricId, double value) {
+        if (metricId < 0 || metricId >= BinarySegmentFormat.metricCount()) {
+            System.err.println("Metric " + metricId + " cannot be stored in a binary segment");
+            return;
+        }
+        if (closed) {
+            if (droppedSamples++ == 0) {
+                System.err.println("Binary segment output in " + directory + " is closed, dropping samples");
+            }
+            return;
+        }
+        buffer.putInt(patientId).putLong(timestamp).putShort((short) metricId).putDouble(value);
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+    }
+
+    private synchronized void flushBuffered() {
+        if (!closed && buffer.position() > 0) {
+            flush();
+        }
+    }
+
+    /**
+     * Returns how many samples were dropped because they were output after
+     * {@link #close()}.
+     *
+     * @return the number of dropped samples
+     */
+    public synchronized long getDroppedSamples() {
+        return droppedSamples;
+    }
+
+    /**
+     * Writes all buffered records and closes the current segment. Later
+     * output is dropped.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        flusher.shutdownNow();
+        flush();
+        if (segment != null) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                System.err.println("Error closing segment: " + e.getMessage());
+            }
+            segment = null;
+        }
+    }
+
+    private void flush() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                if (segment == null || segmentBytes + BinarySegmentFormat.RECORD_SIZE > maxSegmentBytes) {
+                    startSegment();
+                }
+                // Write only whole records that still fit into the current segment
+                long records = Math.max((maxSegmentBytes - segmentBytes) / BinarySegmentFormat.RECORD_SIZE, 1);
+                int limit = buffer.limit();
+                buffer.limit((int) Math.min(limit, buffer.position() + records * BinarySegmentFormat.RECORD_SIZE));
+                while (buffer.hasRemaining()) {
+                    segmentBytes += segment.write(buffer);
+                }
+                buffer.limit(limit);
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing segment in " + directory + ": " + e.getMessage());
+        }
+        buffer.clear();
+    }
+
+    private void startSegment() throws IOException {
+        if (segment != null) {
+            segment.close();
+        }
+        Path path = directory.resolve(String.format("segment-%06d%s", nextSegmentNumber++, BinarySegmentFormat.FILE_SUFFIX));
+        segment = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(BinarySegmentFormat.HEADER_SIZE);
+        header.putInt(BinarySegmentFormat.MAGIC).putShort(BinarySegmentFormat.VERSION).putShort((short) 0).flip();
+        while (header.hasRemaining()) {
+            segment.write(header);
+        }
+        segmentBytes = BinarySegmentFormat.HEADER_SIZE;
+    }
+}
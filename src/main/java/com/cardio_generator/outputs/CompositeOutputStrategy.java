@@ -0,0 +1,141 @@
+package com.cardio_generator.outputs;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends every sample to several output strategies, so one simulator can feed
+ * e.g. a file archive and WebSocket clients at once.
+ * Each sink has its own bounded queue and worker thread, so a slow sink only
+ * delays itself: when its queue is full, samples for that sink are dropped and
+ * counted instead of delaying the generators or the other sinks. A sample the
+ * sink throws an exception for is counted the same way.
+ * Numeric readings stay numbers in the queues and reach every sink in the form
+ * they were given in.
+ */
+public class CompositeOutputStrategy implements OutputStrategy, AutoCloseable {
+    private static final int BATCH_SIZE = 1024;
+    private static final long POLL_MILLIS = 100;
+
+    private final Sink[] sinks;
+    private volatile boolean running = true;
+
+    /**
+     * Constructs a composite output and starts one worker thread per sink.
+     *
+     * @param outputs       the sinks receiving every sample
+     * @param queueCapacity the number of samples that can wait for each sink
+     */
+    public CompositeOutputStrategy(List<OutputStrategy> outputs, int queueCapacity) {
+        sinks = new Sink[outputs.size()];
+        for (int i = 0; i < sinks.length; i++) {
+            sinks[i] = new Sink(outputs.get(i), queueCapacity, i);
+        }
+    }
+
+    @Override
+    public void output(int patientId, long timestamp, String label, String data) {
+        if (!running) {
+            return;
+        }
+        for (Sink sink : sinks) {
+            if (!sink.queue.offer(patientId, timestamp, label, data)) {
+                sink.droppedSamples.incrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public void output(int patientId, long timestamp, int metricId, double value) {
+        if (!running) {
+            return;
+        }
+        for (Sink sink : sinks) {
+            if (!sink.queue.offer(patientId, timestamp, metricId, value)) {
+                sink.droppedSamples.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Returns how many samples a sink did not receive, because its queue was
+     * full or because the sink threw an exception for them.
+     *
+     * @param index the position of the sink in the list given to the constructor
+     * @return the number of dropped samples
+     */
+    public long getDroppedSamples(int index) {
+        return sinks[index].droppedSamples.get();
+    }
+
+    /**
+     * Stops accepting samples, waits until every sink has received what is
+     * still queued for it and then closes the sinks that can be closed.
+     */
+    @Override
+    public void close() {
+        running = false;
+        for (Sink sink : sinks) {
+            try {
+                sink.worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (Sink sink : sinks) {
+            if (sink.output instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable) sink.output).close();
+                } catch (Exception e) {
+                    System.err.println("Error closing output: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private class Sink {
+        private final OutputStrategy output;
+        private final SampleQueue queue;
+        private final AtomicLong droppedSamples = new AtomicLong();
+        private final Thread worker;
+
+        private Sink(OutputStrategy output, int queueCapacity, int index) {
+            this.output = output;
+            this.queue = new SampleQueue(queueCapacity);
+            this.worker = new Thread(this::deliverLoop, "composite-output-" + index);
+            worker.setDaemon(true);
+            worker.start();
+        }
+
+        private void deliverLoop() {
+            SampleQueue.Batch batch = new SampleQueue.Batch(BATCH_SIZE);
+            while (running || !queue.isEmpty()) {
+                int size;
+                try {
+                    size = queue.drainTo(batch, running ? POLL_MILLIS : 0, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                int failed = 0;
+                RuntimeException firstFailure = null;
+                for (int i = 0; i < size; i++) {
+                    try {
+                        batch.output(i, output);
+                    } catch (RuntimeException e) {
+                        failed++; // only this sample is lost, the rest of the batch is still delivered
+                        if (firstFailure == null) {
+                            firstFailure = e;
+                        }
+                    }
+                }
+                if (failed > 0) {
+                    droppedSamples.addAndGet(failed);
+                    System.err.println("Error in output " + output.getClass().getSimpleName() + " for " + failed
+                            + " sample(s): " + firstFailure.getMessage()); // reported once per batch
+                }
+            }
+        }
+    }
+}
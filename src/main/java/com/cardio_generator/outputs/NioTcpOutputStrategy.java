@@ -0,0 +1,365 @@
+package com.cardio_generator.outputs;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends patient data as "patientId,timestamp,label,data" lines to any number
+ * of TCP clients.
+ * A single selector thread accepts clients and writes to them without
+ * blocking. Every client has its own direct buffer that {@link #output} appends
+ * to; when a client reads too slowly for its buffer to take the next line, the
+ * configured {@link SlowClientPolicy} decides what happens, so one lagging
+ * client does not have to stall the simulation or the other clients.
+ */
+public class NioTcpOutputStrategy implements OutputStrategy, AutoCloseable {
+    private static final int DEFAULT_CLIENT_BUFFER_BYTES = 256 * 1024;
+    private static final long BLOCK_WAIT_MILLIS = 100;
+
+    /**
+     * What to do with a line for a client whose buffer is full.
+     */
+    public enum SlowClientPolicy {
+        /** Skip the line for that client only. */
+        DROP,
+        /** Close the connection to that client. */
+        DISCONNECT,
+        /** Wait until the client has read enough; this slows down the caller. */
+        BLOCK
+    }
+
+    private final ServerSocketChannel serverChannel;
+    private final Selector selector;
+    private final SlowClientPolicy slowClientPolicy;
+    private final int clientBufferBytes;
+    private final List<Client> clients = new CopyOnWriteArrayList<>();
+    private final Queue<Client> pendingWrites = new ConcurrentLinkedQueue<>(); // clients that got data since their last write
+    private final AtomicLong droppedLines = new AtomicLong();
+    private final Thread selectorThread;
+    private final ThreadLocal<LineEncoder> lineEncoders = ThreadLocal.withInitial(LineEncoder::new);
+    private volatile boolean running = true;
+
+    /**
+     * Constructs a new NioTcpOutputStrategy that drops lines for slow clients.
+     *
+     * @param port the port to listen on
+     * @throws IOException if the port cannot be bound
+     */
+    public NioTcpOutputStrategy(int port) throws IOException {
+        this(port, SlowClientPolicy.DROP, DEFAULT_CLIENT_BUFFER_BYTES);
+    }
+
+    /**
+     * Constructs a new NioTcpOutputStrategy.
+     *
+     * @param port              the port to listen on, or 0 for any free port
+     * @param slowClientPolicy  what to do when a client's buffer is full
+     * @param clientBufferBytes the size of the buffer of each client
+     * @throws IOException if the port cannot be bound
+     */
+    public NioTcpOutputStrategy(int port, SlowClientPolicy slowClientPolicy, int clientBufferBytes) throws IOException {
+        this.slowClientPolicy = slowClientPolicy;
+        this.clientBufferBytes = clientBufferBytes;
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        System.out.println("TCP Server started on port " + getPort());
+
+        selectorThread = new Thread(this::runSelector, "tcp-output-selector");
+        selectorThread.setDaemon(true);
+        selectorThread.start();
+    }
+
+    /**
+     * Appends the patient data to the buffer of every connected client.
+     *
+     * @param patientId the ID of the patient whose data is being output
+     * @param timestamp the timestamp of the patient data
+     * @param label     the label associated with the patient data
+     * @param data      the patient data to be output
+     */
+    @Override
+    public void output(int patientId, long timestamp, String label, String data) {
+        if (clients.isEmpty()) {
+            return;
+        }
+        String line = new StringBuilder(label.length() + data.length() + 32)
+                .append(patientId).append(',').append(timestamp).append(',')
+                .append(label).append(',').append(data).append('\n').toString();
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8); // encoded once for all clients
+        broadcast(bytes, bytes.length);
+    }
+
+    /**
+     * Appends a numeric reading to the buffer of every connected client. The
+     * line is formatted and encoded into buffers kept per calling thread, so
+     * nothing is allocated per reading.
+     *
+     * @param patientId the ID of the patient whose data is being output
+     * @param timestamp the timestamp of the patient data
+     * @param metricId  the metric of the reading
+     * @param value     the measured value
+     */
+    @Override
+    public void output(int patientId, long timestamp, int metricId, double value) {
+        if (clients.isEmpty()) {
+            return;
+        }
+        LineEncoder encoder = lineEncoders.get();
+        StringBuilder line = encoder.line;
+        line.setLength(0);
+        line.append(patientId).append(',').append(timestamp).append(',')
+                .append(BinarySegmentFormat.metricLabel((short) metricId)).append(',');
+        BinarySegmentFormat.appendValue(line, metricId, value).append('\n');
+        broadcast(encoder.encodeAscii(), line.length());
+    }
+
+    private void broadcast(byte[] bytes, int length) {
+        boolean wakeup = false;
+        for (Client client : clients) {
+            wakeup |= client.enqueue(bytes, length);
+        }
+        if (wakeup) {
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * Returns the port the server is listening on.
+     *
+     * @return the local port
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Returns the number of connected clients.
+     *
+     * @return the number of clients
+     */
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    /**
+     * Returns how many lines were not sent to a client because its buffer was
+     * full, counted once per client.
+     *
+     * @return the number of dropped lines
+     */
+    public long getDroppedLines() {
+        return droppedLines.get();
+    }
+
+    /**
+     * Stops the selector thread and closes all connections. Lines still in the
+     * client buffers are not sent.
+     */
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+        try {
+            selectorThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Client client : clients) {
+            disconnect(client);
+        }
+        try {
+            serverChannel.close();
+            selector.close();
+        } catch (IOException e) {
+            System.err.println("Error closing TCP server: " + e.getMessage());
+        }
+    }
+
+    private void runSelector() {
+        ByteBuffer discard = ByteBuffer.allocate(1024);
+        while (running) {
+            try {
+                selector.select();
+                Client pending;
+                while ((pending = pendingWrites.poll()) != null) {
+                    if (pending.key.isValid()) {
+                        pending.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    }
+                }
+                for (SelectionKey key : selector.selectedKeys()) {
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        Client client = (Client) key.attachment();
+                        if (key.isReadable()) {
+                            // Clients only listen; reading detects when they hang up
+                            discard.clear();
+                            int read;
+                            try {
+                                read = client.channel.read(discard);
+                            } catch (IOException e) {
+                                read = -1; // connection reset
+                            }
+                            if (read < 0) {
+                                disconnect(client);
+                                continue;
+                            }
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            client.write();
+                        }
+                    }
+                }
+                selector.selectedKeys().clear();
+            } catch (IOException e) {
+                System.err.println("Error in TCP output: " + e.getMessage());
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        Client client = new Client(channel);
+        client.key = channel.register(selector, SelectionKey.OP_READ, client);
+        clients.add(client);
+        System.out.println("Client connected: " + channel.getRemoteAddress());
+    }
+
+    private void disconnect(Client client) {
+        clients.remove(client);
+        synchronized (client) {
+            client.open = false;
+            client.notifyAll(); // release producers blocked on this client
+        }
+        if (client.key != null) {
+            client.key.cancel();
+        }
+        try {
+            client.channel.close();
+        } catch (IOException e) {
+            // already closed by the peer
+        }
+    }
+
+    /**
+     * A connected client and the bytes not yet written to it.
+     */
+    private class Client {
+        private final SocketChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(clientBufferBytes); // kept in fill mode
+        private SelectionKey key;
+        private boolean open = true;
+        private boolean writePending;
+
+        private Client(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Appends a line, applying the slow client policy if it does not fit.
+         *
+         * @return true if the selector has to be woken up to write to this client
+         */
+        private boolean enqueue(byte[] bytes, int length) {
+            boolean disconnect = false;
+            synchronized (this) {
+                while (open && buffer.remaining() < length) {
+                    if (slowClientPolicy == SlowClientPolicy.BLOCK && length <= buffer.capacity()) {
+                        try {
+                            wait(BLOCK_WAIT_MILLIS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return false;
+                        }
+                    } else {
+                        droppedLines.incrementAndGet();
+                        disconnect = slowClientPolicy == SlowClientPolicy.DISCONNECT;
+                        break;
+                    }
+                }
+                if (open && !disconnect && buffer.remaining() >= length) {
+                    buffer.put(bytes, 0, length);
+                    if (!writePending) {
+                        writePending = true;
+                        pendingWrites.add(this);
+                        return true;
+                    }
+                }
+            }
+            if (disconnect) {
+                System.out.println("Disconnecting slow client");
+                disconnect(this);
+            }
+            return false;
+        }
+
+        /**
+         * Writes as much of the buffer as the socket takes without blocking.
+         */
+        private void write() {
+            synchronized (this) {
+                buffer.flip();
+                try {
+                    channel.write(buffer);
+                } catch (IOException e) {
+                    open = false; // the client has gone away
+                } finally {
+                    buffer.compact();
+                }
+                if (open && buffer.position() == 0) {
+                    writePending = false;
+                    key.interestOps(SelectionKey.OP_READ);
+                }
+                notifyAll(); // there is room for blocked producers again
+            }
+            if (!open) {
+                disconnect(this);
+            }
+        }
+    }
+
+    /**
+     * Formats numeric readings into lines and encodes them, reusing its
+     * buffers for every line of one thread.
+     */
+    private static class LineEncoder {
+        private final StringBuilder line = new StringBuilder(64);
+        private byte[] bytes = new byte[64];
+
+        /**
+         * Encodes the line, which only holds ASCII characters, and returns the
+         * buffer holding it.
+         */
+        private byte[] encodeAscii() {
+            int length = line.length();
+            if (bytes.length < length) {
+                bytes = new byte[Math.max(length, bytes.length * 2)];
+            }
+            for (int i = 0; i < length; i++) {
+                bytes[i] = (byte) line.charAt(i);
+            }
+            return bytes;
+        }
+    }
+}
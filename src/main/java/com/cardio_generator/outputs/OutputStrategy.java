@@ -4,7 +4,27 @@ package com.cardio_generator.outputs;
  * Defines the contract for outputting patient data in health monitoring simulations.
  * Implementing classes must provide a method to output patient data, including patient ID,
  * timestamp, label, and data.
+ * The generators pass their readings as numbers through
+ * {@link #output(int, long, int, double)}; strategies that store or send
+ * numbers override it so no text is created per sample, while the others
+ * receive the readings as text through the default implementation.
  */
 public interface OutputStrategy {
     void output(int patientId, long timestamp, String label, String data);
+
+    /**
+     * Outputs a numeric reading. The default implementation converts the
+     * reading to the label and data text and passes it to
+     * {@link #output(int, long, String, String)}.
+     *
+     * @param patientId the ID of the patient whose data is being output
+     * @param timestamp the timestamp of the patient data
+     * @param metricId  the metric of the reading, one of the metric IDs of
+     *                  {@link BinarySegmentFormat}
+     * @param value     the measured value
+     */
+    default void output(int patientId, long timestamp, int metricId, double value) {
+        output(patientId, timestamp, BinarySegmentFormat.metricLabel((short) metricId),
+                BinarySegmentFormat.formatValue(metricId, value));
+    }
 }
@@ -0,0 +1,215 @@
+package com.cardio_generator.outputs;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded queue of samples between generator threads and one consumer
+ * thread. Samples are stored in parallel arrays, so queueing a numeric
+ * reading allocates nothing; samples given as text keep their label and data
+ * strings. Producers either wait while the queue is full or have their sample
+ * refused.
+ */
+final class SampleQueue {
+    private final int[] patientIds;
+    private final long[] timestamps;
+    private final int[] metricIds; // -1 for samples given as text
+    private final double[] values;
+    private final String[] labels;
+    private final String[] data;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private int head; // slot of the oldest sample
+    private int count;
+
+    SampleQueue(int capacity) {
+        patientIds = new int[capacity];
+        timestamps = new long[capacity];
+        metricIds = new int[capacity];
+        values = new double[capacity];
+        labels = new String[capacity];
+        data = new String[capacity];
+    }
+
+    void put(int patientId, long timestamp, int metricId, double value) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            awaitFreeSlot();
+            add(patientId, timestamp, metricId, value, null, null);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void put(int patientId, long timestamp, String label, String text) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            awaitFreeSlot();
+            add(patientId, timestamp, -1, 0, label, text);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds a numeric reading unless the queue is full.
+     *
+     * @return false if the queue was full and the reading was not added
+     */
+    boolean offer(int patientId, long timestamp, int metricId, double value) {
+        lock.lock();
+        try {
+            if (count == patientIds.length) {
+                return false;
+            }
+            add(patientId, timestamp, metricId, value, null, null);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds a sample given as text unless the queue is full.
+     *
+     * @return false if the queue was full and the sample was not added
+     */
+    boolean offer(int patientId, long timestamp, String label, String text) {
+        lock.lock();
+        try {
+            if (count == patientIds.length) {
+                return false;
+            }
+            add(patientId, timestamp, -1, 0, label, text);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void awaitFreeSlot() throws InterruptedException {
+        while (count == patientIds.length) {
+            notFull.await();
+        }
+    }
+
+    private void add(int patientId, long timestamp, int metricId, double value, String label, String text) {
+        int slot = (head + count) % patientIds.length;
+        patientIds[slot] = patientId;
+        timestamps[slot] = timestamp;
+        metricIds[slot] = metricId;
+        values[slot] = value;
+        labels[slot] = label;
+        data[slot] = text;
+        count++;
+        notEmpty.signal();
+    }
+
+    /**
+     * Waits up to the timeout for a sample, then moves as many samples as fit
+     * into the batch, replacing its previous content.
+     *
+     * @return the number of samples moved, 0 if the timeout elapsed
+     */
+    int drainTo(Batch batch, long timeout, TimeUnit timeUnit) throws InterruptedException {
+        long nanos = timeUnit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                if (nanos <= 0) {
+                    batch.size = 0;
+                    return 0;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            int moved = Math.min(count, batch.patientIds.length);
+            for (int i = 0; i < moved; i++) {
+                int slot = (head + i) % patientIds.length;
+                batch.patientIds[i] = patientIds[slot];
+                batch.timestamps[i] = timestamps[slot];
+                batch.metricIds[i] = metricIds[slot];
+                batch.values[i] = values[slot];
+                batch.labels[i] = labels[slot];
+                batch.data[i] = data[slot];
+                labels[slot] = null;
+                data[slot] = null;
+            }
+            head = (head + moved) % patientIds.length;
+            count -= moved;
+            batch.size = moved;
+            notFull.signalAll();
+            return moved;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean isEmpty() {
+        lock.lock();
+        try {
+            return count == 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Samples taken from the queue, reused by the consumer for every drain.
+     */
+    static final class Batch {
+        private final int[] patientIds;
+        private final long[] timestamps;
+        private final int[] metricIds;
+        private final double[] values;
+        private final String[] labels;
+        private final String[] data;
+        private int size;
+
+        Batch(int capacity) {
+            patientIds = new int[capacity];
+            timestamps = new long[capacity];
+            metricIds = new int[capacity];
+            values = new double[capacity];
+            labels = new String[capacity];
+            data = new String[capacity];
+        }
+
+        int size() {
+            return size;
+        }
+
+        int getPatientId(int index) {
+            return patientIds[index];
+        }
+
+        long getTimestamp(int index) {
+            return timestamps[index];
+        }
+
+        String getLabel(int index) {
+            return metricIds[index] >= 0 ? BinarySegmentFormat.metricLabel((short) metricIds[index]) : labels[index];
+        }
+
+        StringBuilder appendData(int index, StringBuilder text) {
+            if (metricIds[index] >= 0) {
+                return BinarySegmentFormat.appendValue(text, metricIds[index], values[index]);
+            }
+            return text.append(data[index]);
+        }
+
+        /**
+         * Passes a sample on to another output strategy, in the form it was
+         * given in.
+         */
+        void output(int index, OutputStrategy target) {
+            if (metricIds[index] >= 0) {
+                target.output(patientIds[index], timestamps[index], metricIds[index], values[index]);
+            } else {
+                target.output(patientIds[index], timestamps[index], labels[index], data[index]);
+            }
+        }
+
+    }
+}
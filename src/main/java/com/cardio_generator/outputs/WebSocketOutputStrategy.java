@@ -4,25 +4,144 @@ import org.java_websocket.WebSocket;
 import org.java_websocket.server.WebSocketServer;
 
 import java.net.InetSocketAddress;
-import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Streams patient data to WebSocket clients.
+ * By default every sample is broadcast as a "patientId,timestamp,label,data"
+ * text frame. In batching mode the samples are collected for a short window and
+ * broadcast as one binary frame per window: an 8 byte header and fixed-width
+ * records laid out as in {@link BinarySegmentFormat}. Each frame is encoded
+ * once and shared by all connections.
+ */
 public class WebSocketOutputStrategy implements OutputStrategy {
+    private static final int INITIAL_BATCH_RECORDS = 1024;
 
     private WebSocketServer server;
+    private final long batchWindowMillis;
+    private ByteBuffer batch;
+    private ScheduledExecutorService flusher;
 
     public WebSocketOutputStrategy(int port) {
+        this(port, 0);
+    }
+
+    /**
+     * Constructs a WebSocket output that sends batched binary frames.
+     *
+     * @param port              the port to listen on
+     * @param batchWindowMillis how long samples are collected before they are
+     *                          broadcast as one binary frame, or 0 to send every
+     *                          sample as a text frame
+     */
+    public WebSocketOutputStrategy(int port, long batchWindowMillis) {
+        this.batchWindowMillis = batchWindowMillis;
         server = new SimpleWebSocketServer(new InetSocketAddress(port));
         System.out.println("WebSocket server created on port: " + port + ", listening for connections...");
         server.start();
+        if (batchWindowMillis > 0) {
+            batch = newBatch(INITIAL_BATCH_RECORDS);
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "websocket-batch-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleAtFixedRate(this::flushBatch, batchWindowMillis, batchWindowMillis, TimeUnit.MILLISECONDS);
+        }
     }
 
     @Override
     public void output(int patientId, long timestamp, String label, String data) {
-        String message = String.format("%d,%d,%s,%s", patientId, timestamp, label, data);
-        // Broadcast the message to all connected clients
-        for (WebSocket conn : server.getConnections()) {
-            conn.send(message);
+        if (batchWindowMillis > 0) {
+            short metricId = BinarySegmentFormat.metricId(label);
+            if (metricId >= 0) {
+                try {
+                    addToBatch(patientId, timestamp, metricId, BinarySegmentFormat.parseValue(data));
+                    return;
+                } catch (NumberFormatException e) {
+                    // not numeric, sent as text below
+                }
+            }
         }
+        String message = patientId + "," + timestamp + "," + label + "," + data;
+        // Broadcast the message to all connected clients; the frame is built once for all of them
+        server.broadcast(message);
+    }
+
+    /**
+     * Adds a numeric reading to the current binary frame, or sends it as a
+     * text message if batching is off.
+     *
+     * @param patientId the ID of the patient whose data is being output
+     * @param timestamp the timestamp of the patient data
+     * @param metricId  the metric of the reading
+     * @param value     the measured value
+     */
+    @Override
+    public void output(int patientId, long timestamp, int metricId, double value) {
+        if (batchWindowMillis > 0) {
+            addToBatch(patientId, timestamp, (short) metricId, value);
+            return;
+        }
+        StringBuilder message = new StringBuilder(48).append(patientId).append(',').append(timestamp).append(',')
+                .append(BinarySegmentFormat.metricLabel((short) metricId)).append(',');
+        server.broadcast(BinarySegmentFormat.appendValue(message, metricId, value).toString());
+    }
+
+    /**
+     * Returns the port the server is listening on.
+     *
+     * @return the local port
+     */
+    public int getPort() {
+        return server.getPort();
+    }
+
+    /**
+     * Broadcasts the samples collected so far and stops the server.
+     *
+     * @throws InterruptedException if interrupted while stopping the server
+     */
+    public void stop() throws InterruptedException {
+        if (flusher != null) {
+            flusher.shutdownNow();
+            flushBatch();
+        }
+        server.stop();
+    }
+
+    private synchronized void addToBatch(int patientId, long timestamp, short metricId, double value) {
+        if (batch.remaining() < BinarySegmentFormat.RECORD_SIZE) {
+            ByteBuffer larger = newBatch(batch.capacity() / BinarySegmentFormat.RECORD_SIZE * 2);
+            batch.flip();
+            larger.put(batch);
+            batch = larger;
+        }
+        batch.putInt(patientId).putLong(timestamp).putShort(metricId).putDouble(value);
+    }
+
+    private void flushBatch() {
+        ByteBuffer frame;
+        synchronized (this) {
+            if (batch.position() == BinarySegmentFormat.HEADER_SIZE) {
+                return;
+            }
+            frame = batch;
+            batch = newBatch(frame.capacity() / BinarySegmentFormat.RECORD_SIZE);
+        }
+        frame.flip();
+        if (!server.getConnections().isEmpty()) {
+            server.broadcast(frame);
+        }
+    }
+
+    private static ByteBuffer newBatch(int records) {
+        ByteBuffer buffer = ByteBuffer.allocate(BinarySegmentFormat.HEADER_SIZE + records * BinarySegmentFormat.RECORD_SIZE);
+        buffer.putInt(BinarySegmentFormat.MAGIC).putShort(BinarySegmentFormat.VERSION).putShort((short) 0);
+        return buffer;
     }
 
     private static class SimpleWebSocketServer extends WebSocketServer {
@@ -0,0 +1,107 @@
+package com.data_management;
+
+import com.cardio_generator.outputs.BinarySegmentFormat;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads the binary segment files written by the simulator's binary output
+ * into the data storage.
+ * Every segment is mapped into memory and its fixed-width records are read
+ * directly from the mapped buffer, so no text has to be parsed. Records are
+ * added to the storage in batches.
+ */
+public class BinarySegmentDataReader implements DataReader {
+    private static final int BATCH_SIZE = 64 * 1024;
+
+    private final Path directory;
+
+    /**
+     * Constructs a reader for the segments in the given directory.
+     *
+     * @param directory the directory containing the segment files
+     */
+    public BinarySegmentDataReader(String directory) {
+        this.directory = Paths.get(directory);
+    }
+
+    @Override
+    public void connect(String serverUri) {
+        // Not used in this implementation
+    }
+
+    /**
+     * Reads every segment in the directory, oldest first.
+     *
+     * @param dataStorage the storage where data will be stored
+     * @throws IOException if a segment cannot be read or is not a segment file
+     */
+    @Override
+    public void readData(DataStorage dataStorage) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + BinarySegmentFormat.FILE_SUFFIX)) {
+            for (Path segment : stream) {
+                segments.add(segment);
+            }
+        }
+        Collections.sort(segments); // segment numbers are zero padded, so names sort by age
+        SampleBatch batch = new SampleBatch(BATCH_SIZE);
+        for (Path segment : segments) {
+            readSegment(segment, dataStorage, batch);
+        }
+        dataStorage.addBatch(batch);
+    }
+
+    /**
+     * Checks a metric ID read from a record. Records store the IDs of the
+     * built-in metrics of the {@link MetricRegistry}.
+     *
+     * @param segmentMetricId the metric ID read from a record
+     * @return the metric ID
+     * @throws IllegalArgumentException if the ID is not a built-in metric
+     */
+    static int metricId(short segmentMetricId) {
+        if (segmentMetricId < 0 || segmentMetricId >= MetricRegistry.builtInCount()) {
+            throw new IllegalArgumentException("Unknown metric ID: " + segmentMetricId);
+        }
+        return segmentMetricId;
+    }
+
+    private void readSegment(Path segment, DataStorage dataStorage, SampleBatch batch) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < BinarySegmentFormat.HEADER_SIZE) {
+                return; // created but never written to
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != BinarySegmentFormat.MAGIC || buffer.getShort() != BinarySegmentFormat.VERSION) {
+                throw new IOException("Not a version " + BinarySegmentFormat.VERSION + " segment: " + segment);
+            }
+            buffer.position(BinarySegmentFormat.HEADER_SIZE);
+
+            // A record cut off by a crash at the end of the segment is skipped
+            long records = (size - BinarySegmentFormat.HEADER_SIZE) / BinarySegmentFormat.RECORD_SIZE;
+            for (long i = 0; i < records; i++) {
+                int patientId = buffer.getInt();
+                long timestamp = buffer.getLong();
+                int metricId = metricId(buffer.getShort());
+                double value = buffer.getDouble();
+                batch.add(patientId, timestamp, metricId, value);
+                if (batch.size() == BATCH_SIZE) {
+                    dataStorage.addBatch(batch);
+                    batch.clear();
+                }
+            }
+        }
+    }
+}
@@ -1,9 +1,15 @@
 package com.data_management;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import com.alerts.AlertEvaluationEngine;
 import com.alerts.AlertGenerator;
 
 /**
@@ -11,17 +17,27 @@ import com.alerts.AlertGenerator;
  * system.
  * This class serves as a repository for all patient records, organized by
  * patient IDs.
+ * The storage is safe to use from several ingest and reader threads at once:
+ * patients are looked up in a concurrent map and every patient locks only its
+ * own records.
+ * Old readings can be rolled up and discarded per record type by setting a
+ * {@link RetentionPolicy} and compacting, once or periodically in the
+ * background.
  */
 public class DataStorage {
     private static DataStorage instance; // Singleton instance
 
     private Map<Integer, Patient> patientMap; // Stores patient objects indexed by their unique patient ID.
+    private final List<PatientDataListener> listeners = new CopyOnWriteArrayList<>(); // Notified of every new reading
+    private final Map<Integer, RetentionPolicy> retentionPolicies = new ConcurrentHashMap<>(); // by metric ID
+    private volatile RetentionPolicy defaultRetentionPolicy = RetentionPolicy.KEEP_ALL;
+    private ScheduledExecutorService compactor;
 
     /**
      * Private constructor to prevent instantiation from outside.
      */
     public DataStorage() { // for some tests the constructor needs to be made public but it should remain private to follow the singleton pattern
-        this.patientMap = new HashMap<>();
+        this.patientMap = new ConcurrentHashMap<>();
     }
 
     /**
@@ -41,6 +57,7 @@ public class DataStorage {
      * If the patient does not exist, a new Patient object is created and added to
      * the storage.
      * Otherwise, the new data is added to the existing patient's records.
+     * Registered listeners are notified once the data has been stored.
      *
      * @param patientId        the unique identifier of the patient
      * @param measurementValue the value of the health metric being recorded
@@ -50,8 +67,187 @@ public class DataStorage {
      *                         milliseconds since the Unix epoch
      */
     public void addPatientData(int patientId, double measurementValue, String recordType, long timestamp) {
+        addPatientData(patientId, measurementValue, MetricRegistry.idOf(recordType), timestamp);
+    }
+
+    /**
+     * Adds patient data of a registered metric, see
+     * {@link #addPatientData(int, double, String, long)}.
+     *
+     * @param patientId        the unique identifier of the patient
+     * @param measurementValue the value of the health metric being recorded
+     * @param metricId         the ID of the record type, see {@link MetricRegistry}
+     * @param timestamp        the time at which the measurement was taken, in
+     *                         milliseconds since the Unix epoch
+     */
+    public void addPatientData(int patientId, double measurementValue, int metricId, long timestamp) {
         Patient patient = patientMap.computeIfAbsent(patientId, Patient::new);
-        patient.addRecord(measurementValue, recordType, timestamp);
+        patient.addRecord(measurementValue, metricId, timestamp);
+        for (PatientDataListener listener : listeners) {
+            listener.onPatientData(patient, metricId, measurementValue, timestamp);
+        }
+    }
+
+    /**
+     * Adds a batch of readings. The readings are grouped by patient and every
+     * patient is looked up and locked once per batch; readings of the same
+     * patient are added in batch order. Registered listeners are notified of
+     * every reading once its patient's group has been stored.
+     *
+     * @param batch the readings to add
+     */
+    public void addBatch(SampleBatch batch) {
+        int size = batch.size();
+        int[] positions = groupByPatient(batch);
+        int from = 0;
+        while (from < size) {
+            int patientId = batch.getPatientId(positions[from]);
+            int to = from + 1;
+            while (to < size && batch.getPatientId(positions[to]) == patientId) {
+                to++;
+            }
+            Patient patient = patientMap.computeIfAbsent(patientId, Patient::new);
+            patient.addRecords(batch, positions, from, to);
+            for (PatientDataListener listener : listeners) {
+                for (int i = from; i < to; i++) {
+                    int position = positions[i];
+                    listener.onPatientData(patient, batch.getMetricId(position), batch.getValue(position),
+                            batch.getTimestamp(position));
+                }
+            }
+            from = to;
+        }
+    }
+
+    /**
+     * Returns the positions of the batch's readings ordered by patient ID and,
+     * within a patient, by position.
+     */
+    private static int[] groupByPatient(SampleBatch batch) {
+        int size = batch.size();
+        int[] positions = new int[size];
+        boolean sorted = true;
+        for (int i = 0; i < size; i++) {
+            positions[i] = i;
+            if (i > 0 && batch.getPatientId(i) < batch.getPatientId(i - 1)) {
+                sorted = false;
+            }
+        }
+        if (sorted) {
+            return positions; // already grouped, e.g., by a reader that collects per patient
+        }
+        // The patient ID in the high half and the position in the low half sort like (patientId, position)
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = ((long) batch.getPatientId(i) << 32) | i;
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < size; i++) {
+            positions[i] = (int) keys[i];
+        }
+        return positions;
+    }
+
+    /**
+     * Removes a patient and all their readings, e.g. after discharge, and tells
+     * the registered listeners so they can release what they keep for the
+     * patient.
+     *
+     * @param patientId the unique identifier of the patient
+     * @return true if the patient was stored, false otherwise
+     */
+    public boolean removePatient(int patientId) {
+        if (patientMap.remove(patientId) == null) {
+            return false;
+        }
+        for (PatientDataListener listener : listeners) {
+            listener.onPatientRemoved(patientId);
+        }
+        return true;
+    }
+
+    /**
+     * Registers a listener that is notified of every reading added through
+     * {@link #addPatientData(int, double, String, long)} or
+     * {@link #addBatch(SampleBatch)}.
+     *
+     * @param listener the listener to register
+     */
+    public void addListener(PatientDataListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a previously registered listener.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeListener(PatientDataListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Sets the retention policy of a record type. Policies take effect on the
+     * next compaction.
+     *
+     * @param recordType the type of record, e.g., "ECG"
+     * @param policy     how long readings of this type are kept
+     */
+    public void setRetentionPolicy(String recordType, RetentionPolicy policy) {
+        retentionPolicies.put(MetricRegistry.idOf(recordType), policy);
+    }
+
+    /**
+     * Sets the retention policy of record types without their own policy. By
+     * default all readings are kept.
+     *
+     * @param policy how long readings are kept
+     */
+    public void setDefaultRetentionPolicy(RetentionPolicy policy) {
+        defaultRetentionPolicy = policy;
+    }
+
+    /**
+     * Applies the retention policies to every patient once. Each patient is
+     * locked only while its own records are compacted.
+     */
+    public void compact() {
+        for (Patient patient : patientMap.values()) {
+            patient.compact(metricId -> retentionPolicies.getOrDefault(metricId, defaultRetentionPolicy));
+        }
+    }
+
+    /**
+     * Starts compacting all patients periodically on a background thread.
+     *
+     * @param interval the time between two compactions
+     * @param timeUnit the unit of the interval
+     */
+    public synchronized void startCompaction(long interval, TimeUnit timeUnit) {
+        stopCompaction();
+        compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "data-storage-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        compactor.scheduleWithFixedDelay(() -> {
+            try {
+                compact();
+            } catch (RuntimeException e) {
+                System.err.println("Error compacting patient data: " + e.getMessage()); // keep the schedule running
+            }
+        }, interval, interval, timeUnit);
+    }
+
+    /**
+     * Stops the background compaction started by
+     * {@link #startCompaction(long, TimeUnit)}.
+     */
+    public synchronized void stopCompaction() {
+        if (compactor != null) {
+            compactor.shutdownNow();
+            compactor = null;
+        }
     }
 
     /**
@@ -112,9 +308,10 @@ public class DataStorage {
         // Initialize the AlertGenerator with the storage
         AlertGenerator alertGenerator = new AlertGenerator(storage);
 
-        // Evaluate all patients' data to check for conditions that may trigger alerts
-        for (Patient patient : storage.getAllPatients()) {
-            alertGenerator.evaluateData(patient);
+        // Evaluate all patients' data in parallel to check for conditions that may trigger alerts
+        try (AlertEvaluationEngine engine = new AlertEvaluationEngine(alertGenerator, storage,
+                Runtime.getRuntime().availableProcessors())) {
+            System.out.println(engine.evaluateAll());
         }
     }
 }
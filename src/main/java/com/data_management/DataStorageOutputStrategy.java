@@ -0,0 +1,187 @@
+package com.data_management;
+
+import com.cardio_generator.outputs.BinarySegmentFormat;
+import com.cardio_generator.outputs.OutputStrategy;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An output strategy that feeds the simulator's readings straight into a
+ * {@link DataStorage} in the same process, without formatting, sockets or
+ * parsing, e.g. to load-test the storage and alert evaluation.
+ * Generator threads put readings into a bounded lock-free queue that many
+ * threads may write and one ingest thread drains, adding the readings to the
+ * storage in batches through {@link DataStorage#addBatch(SampleBatch)}.
+ * When the queue is full, producers wait for the ingest thread.
+ */
+public class DataStorageOutputStrategy implements OutputStrategy, AutoCloseable {
+    private static final int DEFAULT_CAPACITY = 65536;
+    private static final int BATCH_SIZE = 4096;
+    private static final long IDLE_PARK_NANOS = 50_000;
+
+    private final DataStorage dataStorage;
+    private final int mask;
+    private final int[] patientIds;
+    private final long[] timestamps;
+    private final int[] metricIds;
+    private final double[] values;
+    // Per slot: equal to the claiming position while free, that position + 1 once written
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong(); // next position claimed by a producer
+    private long head; // next position read by the ingest thread, only used by that thread
+    private final AtomicLong ingestedCount = new AtomicLong();
+    private final Thread ingestThread;
+    private volatile boolean running = true;
+
+    /**
+     * Constructs an output with room for 65536 queued readings and starts its
+     * ingest thread.
+     *
+     * @param dataStorage the storage receiving the readings
+     */
+    public DataStorageOutputStrategy(DataStorage dataStorage) {
+        this(dataStorage, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an output and starts its ingest thread.
+     *
+     * @param dataStorage the storage receiving the readings
+     * @param capacity    the number of readings that can wait to be ingested,
+     *                    rounded up to a power of two
+     */
+    public DataStorageOutputStrategy(DataStorage dataStorage, int capacity) {
+        this.dataStorage = dataStorage;
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.mask = size - 1;
+        this.patientIds = new int[size];
+        this.timestamps = new long[size];
+        this.metricIds = new int[size];
+        this.values = new double[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        ingestThread = new Thread(this::ingestLoop, "data-storage-ingest");
+        ingestThread.setDaemon(true);
+        ingestThread.start();
+    }
+
+    /**
+     * Queues a reading given as text, converting it to its metric ID and value.
+     *
+     * @param patientId the ID of the patient whose data is being output
+     * @param timestamp the timestamp of the patient data
+     * @param label     the label associated with the patient data
+     * @param data      the patient data to be output
+     */
+    @Override
+    public void output(int patientId, long timestamp, String label, String data) {
+        double value;
+        int metricId;
+        try {
+            value = BinarySegmentFormat.parseValue(data);
+            metricId = MetricRegistry.idOf(label);
+        } catch (NumberFormatException e) {
+            System.err.println("Data " + data + " for label " + label + " is not a number");
+            return;
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return;
+        }
+        enqueue(patientId, timestamp, metricId, value);
+    }
+
+    /**
+     * Queues a numeric reading.
+     *
+     * @param patientId the ID of the patient whose data is being output
+     * @param timestamp the timestamp of the patient data
+     * @param metricId  the metric of the reading
+     * @param value     the measured value
+     */
+    @Override
+    public void output(int patientId, long timestamp, int metricId, double value) {
+        enqueue(patientId, timestamp, BinarySegmentDataReader.metricId((short) metricId), value);
+    }
+
+    private void enqueue(int patientId, long timestamp, int metricId, double value) {
+        int spins = 0;
+        while (running) {
+            long position = tail.get();
+            int slot = (int) position & mask;
+            long available = sequences.get(slot) - position;
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    patientIds[slot] = patientId;
+                    timestamps[slot] = timestamp;
+                    metricIds[slot] = metricId;
+                    values[slot] = value;
+                    sequences.lazySet(slot, position + 1); // publishes the fields to the ingest thread
+                    return;
+                }
+            } else if (available < 0) {
+                // Full: the slot still holds a reading from one lap ago
+                if (++spins < 100) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns how many readings have been added to the storage so far.
+     *
+     * @return the number of ingested readings
+     */
+    public long getIngestedCount() {
+        return ingestedCount.get();
+    }
+
+    /**
+     * Stops accepting readings and waits until the queued ones are in the
+     * storage.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            ingestThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void ingestLoop() {
+        SampleBatch batch = new SampleBatch(BATCH_SIZE);
+        while (true) {
+            boolean stopping = !running; // read before draining, so nothing queued before close is missed
+            while (batch.size() < BATCH_SIZE) {
+                int slot = (int) head & mask;
+                if (sequences.get(slot) != head + 1) {
+                    break; // empty, or the next reading is still being written
+                }
+                batch.add(patientIds[slot], timestamps[slot], metricIds[slot], values[slot]);
+                sequences.lazySet(slot, head + mask + 1); // free for the producer one lap ahead
+                head++;
+            }
+            if (!batch.isEmpty()) {
+                try {
+                    dataStorage.addBatch(batch);
+                } catch (RuntimeException e) {
+                    System.err.println("Error adding readings to the data storage: " + e.getMessage());
+                }
+                ingestedCount.addAndGet(batch.size());
+                batch.clear();
+            } else if (stopping && head == tail.get()) {
+                return;
+            } else {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+}
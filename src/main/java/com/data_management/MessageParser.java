@@ -0,0 +1,187 @@
+package com.data_management;
+
+/**
+ * Parses simulator messages of the form "patientId,timestamp,label,value"
+ * directly from the message characters, without splitting it into arrays or
+ * substrings. Labels are resolved to their {@link MetricRegistry} ID, so a
+ * known label never creates a new string.
+ * A parser keeps the fields of the last parsed message, so one instance must
+ * not be shared between threads.
+ */
+public class MessageParser {
+    private static final int FIELD_COUNT = 4;
+    private static final long MAX_EXACT_MANTISSA = 1L << 53; // larger mantissas cannot be stored exactly in a double
+    private static final double[] POWERS_OF_TEN = new double[23]; // 10^22 is the largest exact power of ten
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final int[] fieldStarts = new int[FIELD_COUNT];
+    private final int[] fieldEnds = new int[FIELD_COUNT];
+    private int patientId;
+    private long timestamp;
+    private int metricId;
+    private double measurementValue;
+
+    /**
+     * Parses a message and keeps its fields until the next call.
+     *
+     * @param message the message to parse
+     * @return true if the message has exactly four fields and a label the
+     *         {@link MetricRegistry} accepts, false otherwise
+     * @throws NumberFormatException if the patient ID, timestamp or value is not
+     *                               a valid number
+     */
+    public boolean parse(String message) {
+        if (!findFields(message)) {
+            return false;
+        }
+        patientId = Integer.parseInt(message, fieldStarts[0], fieldEnds[0], 10);
+        timestamp = Long.parseLong(message, fieldStarts[1], fieldEnds[1], 10);
+        metricId = MetricRegistry.idOf(message, fieldStarts[2], fieldEnds[2]);
+        if (metricId < 0) {
+            return false;
+        }
+        measurementValue = parseDouble(message, fieldStarts[3], fieldEnds[3]);
+        return true;
+    }
+
+    /**
+     * Locates the four comma separated fields, trimming surrounding whitespace.
+     */
+    private boolean findFields(String message) {
+        int start = 0;
+        for (int field = 0; field < FIELD_COUNT; field++) {
+            int end = message.indexOf(',', start);
+            if (field == FIELD_COUNT - 1) {
+                if (end >= 0) {
+                    return false; // more than four fields
+                }
+                end = message.length();
+            } else if (end < 0) {
+                return false; // fewer than four fields
+            }
+            int trimmedStart = start;
+            int trimmedEnd = end;
+            while (trimmedStart < trimmedEnd && message.charAt(trimmedStart) <= ' ') {
+                trimmedStart++;
+            }
+            while (trimmedEnd > trimmedStart && message.charAt(trimmedEnd - 1) <= ' ') {
+                trimmedEnd--;
+            }
+            fieldStarts[field] = trimmedStart;
+            fieldEnds[field] = trimmedEnd;
+            start = end + 1;
+        }
+        return true;
+    }
+
+    /**
+     * Parses the data of a generator as it appears in the simulator's text output,
+     * where saturation values end with "%" and alerts are "triggered" (stored as
+     * 1) or "resolved" (stored as 0).
+     */
+    static double parseData(String text, int start, int end) {
+        if (text.startsWith("triggered", start) && end - start == 9) {
+            return 1;
+        }
+        if (text.startsWith("resolved", start) && end - start == 8) {
+            return 0;
+        }
+        if (end > start && text.charAt(end - 1) == '%') {
+            end--;
+        }
+        return parseDouble(text, start, end);
+    }
+
+    /**
+     * Parses plain decimals such as "-12.345" without allocating. The digits are
+     * collected into an exact integer mantissa and divided by an exact power of
+     * ten, which gives the same correctly rounded result as
+     * {@link Double#parseDouble}. Anything else (exponents, more than 15-16
+     * significant digits, NaN, Infinity) falls back to Double.parseDouble.
+     */
+    static double parseDouble(String text, int start, int end) {
+        int index = start;
+        boolean negative = false;
+        if (index < end && (text.charAt(index) == '-' || text.charAt(index) == '+')) {
+            negative = text.charAt(index) == '-';
+            index++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean fraction = false;
+        for (; index < end; index++) {
+            char c = text.charAt(index);
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (fraction) {
+                    fractionDigits++;
+                }
+                if (mantissa > MAX_EXACT_MANTISSA || fractionDigits >= POWERS_OF_TEN.length) {
+                    return Double.parseDouble(text.substring(start, end));
+                }
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else {
+                return Double.parseDouble(text.substring(start, end));
+            }
+        }
+        if (digits == 0) {
+            return Double.parseDouble(text.substring(start, end)); // reports the invalid number
+        }
+        double value = mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Returns the patient ID of the last parsed message.
+     *
+     * @return the patient ID
+     */
+    public int getPatientId() {
+        return patientId;
+    }
+
+    /**
+     * Returns the timestamp of the last parsed message.
+     *
+     * @return the timestamp in milliseconds since the Unix epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Returns the label of the last parsed message.
+     *
+     * @return the label, e.g., "ECG"
+     */
+    public String getLabel() {
+        return MetricRegistry.labelOf(metricId);
+    }
+
+    /**
+     * Returns the metric ID of the label of the last parsed message.
+     *
+     * @return the metric ID, see {@link MetricRegistry}
+     */
+    public int getMetricId() {
+        return metricId;
+    }
+
+    /**
+     * Returns the measured value of the last parsed message.
+     *
+     * @return the measured value
+     */
+    public double getMeasurementValue() {
+        return measurementValue;
+    }
+}
@@ -0,0 +1,179 @@
+package com.data_management;
+
+import java.util.Arrays;
+
+/**
+ * Maps metric labels such as "ECG" to small integer IDs, so readings can be
+ * stored and dispatched by ID instead of comparing label strings.
+ * The labels written by the simulator's generators are built in and have fixed
+ * IDs, which the simulator's binary formats store as well. Any other label gets
+ * the next free ID the first time it is seen; IDs are never reused. At most
+ * {@value #MAX_DYNAMIC_LABELS} such labels of up to {@value #MAX_LABEL_LENGTH}
+ * characters are accepted, so malformed input cannot grow the registry
+ * without limit.
+ * Labels are looked up through a hash table that is replaced, never changed,
+ * when a label is added, so lookups take no lock.
+ * All methods are safe to call from several threads.
+ */
+public final class MetricRegistry {
+    public static final int ECG = 0;
+    public static final int SATURATION = 1;
+    public static final int SYSTOLIC_PRESSURE = 2;
+    public static final int DIASTOLIC_PRESSURE = 3;
+    public static final int CHOLESTEROL = 4;
+    public static final int WHITE_BLOOD_CELLS = 5;
+    public static final int RED_BLOOD_CELLS = 6;
+    public static final int ALERT = 7;
+
+    // The position of a label is its metric ID; IDs are stored in files, so new labels may only be appended
+    private static final String[] BUILT_IN_LABELS = {
+            "ECG", "Saturation", "SystolicPressure", "DiastolicPressure",
+            "Cholesterol", "WhiteBloodCells", "RedBloodCells", "Alert"
+    };
+
+    static final int MAX_DYNAMIC_LABELS = 64;
+    static final int MAX_LABEL_LENGTH = 64;
+    private static final int MAX_METRICS = BUILT_IN_LABELS.length + MAX_DYNAMIC_LABELS;
+
+    private static volatile Table table = new Table(BUILT_IN_LABELS);
+
+    private MetricRegistry() {
+    }
+
+    /**
+     * Returns the ID of a label, registering the label if it is new.
+     *
+     * @param label the metric label, e.g., "ECG"
+     * @return the metric ID
+     * @throws IllegalArgumentException if the label is null, empty or too long,
+     *                                  or is new and the registry is full
+     */
+    public static int idOf(String label) {
+        if (label == null) {
+            throw new IllegalArgumentException("Metric label must not be null");
+        }
+        int id = findOrRegister(label, 0, label.length());
+        if (id < 0) {
+            throw new IllegalArgumentException("Cannot register metric label: " + label);
+        }
+        return id;
+    }
+
+    /**
+     * Returns the ID of the label found between two positions of a text,
+     * without creating a string unless the label is new.
+     *
+     * @param text  the text containing the label
+     * @param start the position of the first character of the label
+     * @param end   the position after the last character of the label
+     * @return the metric ID, or -1 if the label is empty or too long, or is new
+     *         and the registry is full
+     */
+    public static int idOf(String text, int start, int end) {
+        return findOrRegister(text, start, end);
+    }
+
+    private static int findOrRegister(String text, int start, int end) {
+        int id = table.find(text, start, end);
+        if (id >= 0) {
+            return id;
+        }
+        int length = end - start;
+        if (length == 0 || length > MAX_LABEL_LENGTH) {
+            return -1;
+        }
+        return register(text.substring(start, end));
+    }
+
+    /**
+     * Returns the label of a metric ID.
+     *
+     * @param id the metric ID
+     * @return the label, e.g., "ECG"
+     * @throws IllegalArgumentException if no label has this ID
+     */
+    public static String labelOf(int id) {
+        String[] known = table.labels;
+        if (id < 0 || id >= known.length) {
+            throw new IllegalArgumentException("Unknown metric ID: " + id);
+        }
+        return known[id];
+    }
+
+    /**
+     * Returns the number of built-in metrics; their IDs range from 0 to this
+     * number minus one and never change.
+     *
+     * @return the number of built-in metrics
+     */
+    public static int builtInCount() {
+        return BUILT_IN_LABELS.length;
+    }
+
+    /**
+     * Returns the number of registered metrics; IDs range from 0 to this
+     * number minus one.
+     *
+     * @return the number of metrics
+     */
+    public static int size() {
+        return table.labels.length;
+    }
+
+    private static synchronized int register(String label) {
+        Table current = table;
+        int existing = current.find(label, 0, label.length());
+        if (existing >= 0) {
+            return existing;
+        }
+        if (current.labels.length == MAX_METRICS) {
+            return -1;
+        }
+        String[] extended = Arrays.copyOf(current.labels, current.labels.length + 1);
+        extended[current.labels.length] = label;
+        table = new Table(extended);
+        return current.labels.length;
+    }
+
+    /**
+     * An open addressing hash table from label to ID, never changed once
+     * published.
+     */
+    private static final class Table {
+        private final String[] labels; // indexed by ID
+        private final int[] slots; // ID + 1 of the label hashed to each slot, 0 if empty
+        private final int mask;
+
+        private Table(String[] labels) {
+            this.labels = labels;
+            int capacity = Integer.highestOneBit(Math.max(labels.length, 1) * 4 - 1) << 1;
+            this.slots = new int[capacity];
+            this.mask = capacity - 1;
+            for (int id = 0; id < labels.length; id++) {
+                int slot = labels[id].hashCode() & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = id + 1;
+            }
+        }
+
+        /**
+         * Returns the ID of the label between two positions of a text, or -1.
+         */
+        private int find(String text, int start, int end) {
+            int length = end - start;
+            int hash = 0; // the same as String.hashCode() of the label
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + text.charAt(i);
+            }
+            for (int slot = hash & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+                String label = labels[slots[slot] - 1];
+                if (label.length() == length && text.regionMatches(start, label, 0, length)) {
+                    return slots[slot] - 1;
+                }
+            }
+            return -1;
+        }
+    }
+}
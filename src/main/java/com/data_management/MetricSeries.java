@@ -0,0 +1,478 @@
+package com.data_management;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Stores the readings of one metric for one patient in columnar form.
+ * Timestamps and values are kept in parallel primitive arrays that are split
+ * into fixed-size chunks, so appending never copies the whole history and a
+ * reading costs a few bytes instead of a full {@link PatientRecord} object.
+ * Record objects are only created when a caller asks for them.
+ * Readings are kept sorted by timestamp so time ranges can be located with a
+ * binary search.
+ * {@link #compact(RetentionPolicy)} removes old readings from the front of the
+ * series, rolling them up into the tiers of the policy; whole chunks are
+ * released as the front moves past them. A late reading from the period that
+ * has already been rolled up is added to the matching rollup bucket instead.
+ * {@link #snapshot()} shares the chunks with a read-only view instead of
+ * copying them; the series copies a chunk table or chunk only before it would
+ * change it in place.
+ */
+public class MetricSeries {
+    private static final int CHUNK_SHIFT = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT; // 1024 readings per chunk
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int INITIAL_CAPACITY = 16; // first chunk grows up to CHUNK_SIZE
+
+    private final int patientId;
+    private final int metricId;
+    private long[][] timestampChunks;
+    private double[][] valueChunks;
+    private int[][] sequenceChunks; // arrival order of each reading within the patient
+    private int start; // position of the first reading in the first chunk
+    private int size;
+    private RollupSeries[] rollups = new RollupSeries[0]; // finest tier first
+    private long rawHorizon = Long.MIN_VALUE; // raw readings before this were rolled up by compaction
+    private boolean sharedTables; // a snapshot reads the current chunk tables
+    private int sharedChunks; // chunks below this index may be read by a snapshot
+
+    /**
+     * Constructs an empty series for the given patient and metric.
+     *
+     * @param patientId the unique identifier of the patient owning the series
+     * @param metricId  the ID of the metric stored in this series, see
+     *                  {@link MetricRegistry}
+     */
+    public MetricSeries(int patientId, int metricId) {
+        this.patientId = patientId;
+        this.metricId = metricId;
+        reset();
+    }
+
+    private MetricSeries(MetricSeries series) {
+        this.patientId = series.patientId;
+        this.metricId = series.metricId;
+        this.timestampChunks = series.timestampChunks;
+        this.valueChunks = series.valueChunks;
+        this.sequenceChunks = series.sequenceChunks;
+        this.start = series.start;
+        this.size = series.size;
+    }
+
+    private void reset() {
+        timestampChunks = new long[][] { new long[INITIAL_CAPACITY] };
+        valueChunks = new double[][] { new double[INITIAL_CAPACITY] };
+        sequenceChunks = new int[][] { new int[INITIAL_CAPACITY] };
+        start = 0;
+        size = 0;
+        sharedTables = false;
+        sharedChunks = 0;
+    }
+
+    /**
+     * Adds a reading to the series, keeping the readings sorted by timestamp.
+     * Readings that arrive in order are appended directly; late readings are
+     * inserted after all readings with the same or an earlier timestamp.
+     *
+     * @param timestamp the time of the reading, in milliseconds since UNIX epoch
+     * @param value     the measured value
+     * @param sequence  the arrival number of the reading within its patient
+     */
+    void add(long timestamp, double value, int sequence) {
+        if (timestamp < rawHorizon && rollups.length > 0) {
+            addToRollups(timestamp, value);
+            return;
+        }
+        if (size == 0 || timestamp >= getTimestamp(size - 1)) {
+            append(timestamp, value, sequence);
+        } else {
+            insert(findInsertionPoint(timestamp), timestamp, value, sequence);
+        }
+    }
+
+    /**
+     * Adds a late reading to the finest tier whose buckets already cover its
+     * time, or to the coarsest tier holding data if it is older than all of
+     * them, so every tier keeps covering only the time before the finer ones.
+     */
+    private void addToRollups(long timestamp, double value) {
+        RollupSeries target = rollups[0];
+        for (RollupSeries tier : rollups) {
+            if (tier.size() > 0) {
+                target = tier;
+                if (timestamp >= tier.getBucketStart(0)) {
+                    break;
+                }
+            }
+        }
+        target.addReading(timestamp, value);
+    }
+
+    private void append(long timestamp, double value, int sequence) {
+        int chunk = (start + size) >>> CHUNK_SHIFT;
+        int offset = (start + size) & CHUNK_MASK;
+        ensureCapacity(chunk, offset);
+        timestampChunks[chunk][offset] = timestamp;
+        valueChunks[chunk][offset] = value;
+        sequenceChunks[chunk][offset] = sequence;
+        size++;
+    }
+
+    /**
+     * Shifts the readings from {@code index} onwards one position to the right
+     * and stores the new reading in the freed slot.
+     */
+    private void insert(int index, long timestamp, double value, int sequence) {
+        index += start;
+        int last = start + size;
+        ensureCapacity(last >>> CHUNK_SHIFT, last & CHUNK_MASK);
+        size++;
+        int chunk = last >>> CHUNK_SHIFT;
+        int end = last & CHUNK_MASK;
+        int firstChunk = index >>> CHUNK_SHIFT;
+        unshareChunks(firstChunk, chunk);
+        while (chunk > firstChunk) {
+            shiftWithinChunk(chunk, 0, end);
+            timestampChunks[chunk][0] = timestampChunks[chunk - 1][CHUNK_MASK];
+            valueChunks[chunk][0] = valueChunks[chunk - 1][CHUNK_MASK];
+            sequenceChunks[chunk][0] = sequenceChunks[chunk - 1][CHUNK_MASK];
+            chunk--;
+            end = CHUNK_MASK;
+        }
+        int offset = index & CHUNK_MASK;
+        shiftWithinChunk(chunk, offset, end);
+        timestampChunks[chunk][offset] = timestamp;
+        valueChunks[chunk][offset] = value;
+        sequenceChunks[chunk][offset] = sequence;
+    }
+
+    private void shiftWithinChunk(int chunk, int from, int to) {
+        System.arraycopy(timestampChunks[chunk], from, timestampChunks[chunk], from + 1, to - from);
+        System.arraycopy(valueChunks[chunk], from, valueChunks[chunk], from + 1, to - from);
+        System.arraycopy(sequenceChunks[chunk], from, sequenceChunks[chunk], from + 1, to - from);
+    }
+
+    /**
+     * Finds where a late reading belongs. Late readings are usually only a
+     * little behind the newest one, so the search gallops backwards from the
+     * end before switching to a binary search.
+     */
+    private int findInsertionPoint(long timestamp) {
+        int high = size - 1; // known: getTimestamp(high) > timestamp
+        int step = 1;
+        int low = high - step;
+        while (low >= 0 && getTimestamp(low) > timestamp) {
+            high = low;
+            step <<= 1;
+            low = high - step;
+        }
+        return firstIndexAfter(timestamp, Math.max(low + 1, 0), high);
+    }
+
+    private void ensureCapacity(int chunk, int offset) {
+        if (chunk == 0) {
+            int capacity = timestampChunks[0].length;
+            if (offset == capacity) {
+                unshareTables();
+                int newCapacity = Math.min(capacity << 1, CHUNK_SIZE);
+                timestampChunks[0] = Arrays.copyOf(timestampChunks[0], newCapacity);
+                valueChunks[0] = Arrays.copyOf(valueChunks[0], newCapacity);
+                sequenceChunks[0] = Arrays.copyOf(sequenceChunks[0], newCapacity);
+            }
+            return;
+        }
+        if (chunk == timestampChunks.length) {
+            timestampChunks = Arrays.copyOf(timestampChunks, chunk + 1);
+            valueChunks = Arrays.copyOf(valueChunks, chunk + 1);
+            sequenceChunks = Arrays.copyOf(sequenceChunks, chunk + 1);
+            sharedTables = false;
+        }
+        if (timestampChunks[chunk] == null) {
+            unshareTables();
+            timestampChunks[chunk] = new long[CHUNK_SIZE];
+            valueChunks[chunk] = new double[CHUNK_SIZE];
+            sequenceChunks[chunk] = new int[CHUNK_SIZE];
+        }
+    }
+
+    /**
+     * Returns the number of readings in this series.
+     *
+     * @return the number of readings
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the type of record stored in this series.
+     *
+     * @return the record type, e.g., "ECG"
+     */
+    public String getRecordType() {
+        return MetricRegistry.labelOf(metricId);
+    }
+
+    /**
+     * Returns the ID of the metric stored in this series.
+     *
+     * @return the metric ID, see {@link MetricRegistry}
+     */
+    public int getMetricId() {
+        return metricId;
+    }
+
+    /**
+     * Returns the timestamp of the reading at the given position.
+     *
+     * @param index the position of the reading, from 0 to {@code size() - 1}
+     * @return the timestamp in milliseconds since UNIX epoch
+     */
+    public long getTimestamp(int index) {
+        index += start;
+        return timestampChunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+    }
+
+    /**
+     * Returns the value of the reading at the given position.
+     *
+     * @param index the position of the reading, from 0 to {@code size() - 1}
+     * @return the measured value
+     */
+    public double getValue(int index) {
+        index += start;
+        return valueChunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+    }
+
+    /**
+     * Returns the position of the first reading taken at or after the given
+     * time.
+     *
+     * @param timestamp the time to search for, in milliseconds since UNIX epoch
+     * @return the index of the first matching reading, or {@code size()} if
+     *         every reading is earlier
+     */
+    public int firstIndexAtOrAfter(long timestamp) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (getTimestamp(mid) < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the position of the first reading taken after the given time.
+     *
+     * @param timestamp the time to search for, in milliseconds since UNIX epoch
+     * @return the index of the first later reading, or {@code size()} if no
+     *         reading is later
+     */
+    public int firstIndexAfter(long timestamp) {
+        return firstIndexAfter(timestamp, 0, size);
+    }
+
+    private int firstIndexAfter(long timestamp, int low, int high) {
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (getTimestamp(mid) <= timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    int getSequence(int index) {
+        index += start;
+        return sequenceChunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+    }
+
+    /**
+     * Materialises the reading at the given position as a record object.
+     *
+     * @param index the position of the reading, from 0 to {@code size() - 1}
+     * @return a new PatientRecord holding the reading
+     */
+    public PatientRecord getRecord(int index) {
+        return new PatientRecord(patientId, getValue(index), metricId, getTimestamp(index));
+    }
+
+    /**
+     * Returns a read-only view of the current raw readings that later changes
+     * to this series do not affect. The view shares the chunks, so taking it
+     * copies nothing; rollups are not included. Must be called under the same
+     * lock as the changes, and the view must not be changed itself.
+     */
+    MetricSeries snapshot() {
+        sharedTables = true;
+        sharedChunks = timestampChunks.length;
+        return new MetricSeries(this);
+    }
+
+    /**
+     * Copies the chunk tables if a snapshot reads them, before an entry is
+     * replaced.
+     */
+    private void unshareTables() {
+        if (sharedTables) {
+            timestampChunks = timestampChunks.clone();
+            valueChunks = valueChunks.clone();
+            sequenceChunks = sequenceChunks.clone();
+            sharedTables = false;
+        }
+    }
+
+    /**
+     * Copies the chunks in a range that a snapshot may read, before readings
+     * are shifted within them. Appends only write slots no snapshot reads, so
+     * they need no copies.
+     */
+    private void unshareChunks(int firstChunk, int lastChunk) {
+        if (firstChunk >= sharedChunks) {
+            return;
+        }
+        unshareTables();
+        for (int chunk = firstChunk; chunk <= lastChunk && chunk < sharedChunks; chunk++) {
+            timestampChunks[chunk] = timestampChunks[chunk].clone();
+            valueChunks[chunk] = valueChunks[chunk].clone();
+            sequenceChunks[chunk] = sequenceChunks[chunk].clone();
+        }
+        sharedChunks = firstChunk;
+    }
+
+    /**
+     * Applies a retention policy: raw readings and rollups older than their
+     * retention period, counted back from the newest reading, are rolled up
+     * into the next tier or discarded. If the policy's tiers differ from the
+     * existing ones, the existing rollups are merged into the new first tier.
+     *
+     * @param policy the retention policy of this series' metric
+     */
+    void compact(RetentionPolicy policy) {
+        if (size == 0 || policy.keepsEverything()) {
+            return;
+        }
+        int tierCount = policy.getTierCount();
+        if (!hasTiersOf(policy)) {
+            RollupSeries[] previous = rollups;
+            rollups = new RollupSeries[tierCount];
+            for (int tier = 0; tier < tierCount; tier++) {
+                rollups[tier] = new RollupSeries(policy.getTierResolutionMillis(tier));
+            }
+            if (tierCount > 0) {
+                for (RollupSeries tier : previous) {
+                    tier.expire(Long.MAX_VALUE, rollups[0]);
+                }
+            }
+        }
+
+        long latest = getTimestamp(size - 1);
+        long cutoff = latest - policy.getRawRetentionMillis();
+        int expired = firstIndexAtOrAfter(cutoff);
+        if (tierCount > 0) {
+            rawHorizon = Math.max(rawHorizon, cutoff);
+        }
+        if (expired > 0) {
+            if (tierCount > 0) {
+                for (int i = 0; i < expired; i++) {
+                    rollups[0].addReading(getTimestamp(i), getValue(i));
+                }
+            }
+            removeFirst(expired);
+        }
+        for (int tier = 0; tier < tierCount; tier++) {
+            RollupSeries next = tier + 1 < tierCount ? rollups[tier + 1] : null;
+            rollups[tier].expire(latest - policy.getTierRetentionMillis(tier), next);
+        }
+    }
+
+    private boolean hasTiersOf(RetentionPolicy policy) {
+        if (rollups.length != policy.getTierCount()) {
+            return false;
+        }
+        for (int tier = 0; tier < rollups.length; tier++) {
+            if (rollups[tier].getResolutionMillis() != policy.getTierResolutionMillis(tier)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void removeFirst(int count) {
+        if (count == size) {
+            reset();
+            return;
+        }
+        start += count;
+        size -= count;
+        int releasedChunks = start >>> CHUNK_SHIFT;
+        if (releasedChunks > 0) {
+            timestampChunks = Arrays.copyOfRange(timestampChunks, releasedChunks, timestampChunks.length);
+            valueChunks = Arrays.copyOfRange(valueChunks, releasedChunks, valueChunks.length);
+            sequenceChunks = Arrays.copyOfRange(sequenceChunks, releasedChunks, sequenceChunks.length);
+            start &= CHUNK_MASK;
+            sharedTables = false;
+            sharedChunks = Math.max(sharedChunks - releasedChunks, 0);
+        }
+    }
+
+    /**
+     * Returns the number of rollup tiers of this series.
+     *
+     * @return the number of tiers, 0 until the series is first compacted with
+     *         a policy that has tiers
+     */
+    public int getRollupTierCount() {
+        return rollups.length;
+    }
+
+    /**
+     * Returns a rollup tier of this series.
+     *
+     * @param tier the tier, from 0 (finest) to {@code getRollupTierCount() - 1}
+     * @return the rollups of the tier
+     */
+    public RollupSeries getRollups(int tier) {
+        return rollups[tier];
+    }
+
+    /**
+     * Adds the rollups with a bucket start in the given range to the list,
+     * oldest first, as records holding the bucket's mean. Each part of the
+     * range is covered by the finest tier that has data for it, so only
+     * rollups older than the raw readings are returned.
+     *
+     * @param startTime the start of the range, in milliseconds since UNIX epoch
+     * @param endTime   the end of the range, in milliseconds since UNIX epoch
+     * @param records   the list to add the records to
+     */
+    void collectRollups(long startTime, long endTime, List<PatientRecord> records) {
+        // Each tier covers only the time before the data of all finer tiers
+        long[] limits = new long[rollups.length];
+        long limit = size > 0 ? getTimestamp(0) : Long.MAX_VALUE;
+        for (int tier = 0; tier < rollups.length; tier++) {
+            limits[tier] = limit;
+            if (rollups[tier].size() > 0) {
+                limit = Math.min(limit, rollups[tier].getBucketStart(0));
+            }
+        }
+        for (int tier = rollups.length - 1; tier >= 0; tier--) {
+            RollupSeries rollup = rollups[tier];
+            for (int i = rollup.firstIndexAtOrAfter(startTime); i < rollup.size(); i++) {
+                long bucketStart = rollup.getBucketStart(i);
+                if (bucketStart > endTime || bucketStart >= limits[tier]) {
+                    break;
+                }
+                records.add(new PatientRecord(patientId, rollup.getMean(i), metricId, bucketStart));
+            }
+        }
+    }
+}
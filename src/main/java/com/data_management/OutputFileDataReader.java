@@ -1,14 +1,54 @@
 package com.data_management;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
+/**
+ * Reads the text output of the simulator's file output into the data storage.
+ * The source can be a single file or the output directory, in which case every
+ * label file in it is read. Files are split into chunks at line boundaries and
+ * the chunks are parsed in parallel on a fork-join pool. The parsed chunks are
+ * added to the storage one at a time, each as one {@link SampleBatch}, in file
+ * and chunk order, so the readings of a patient reach the storage and its
+ * listeners in the order they were written.
+ */
 public class OutputFileDataReader implements DataReader {
+    private static final long CHUNK_SIZE = 8L * 1024 * 1024; // bytes parsed by one task
+    private static final String PATIENT_ID = "Patient ID: ";
+    private static final String TIMESTAMP = ", Timestamp: ";
+    private static final String LABEL = ", Label: ";
+    private static final String DATA = ", Data: ";
+
     private String outputDir;
+    private final int parallelism;
 
     public OutputFileDataReader(String outputDir) {
+        this(outputDir, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a reader that parses with the given number of threads.
+     *
+     * @param outputDir   the output argument of the simulator, e.g., "file:output",
+     *                    naming the output directory or a single output file
+     * @param parallelism the number of file chunks parsed at the same time
+     */
+    public OutputFileDataReader(String outputDir, int parallelism) {
         this.outputDir = outputDir;
+        this.parallelism = parallelism;
     }
 
     @Override
@@ -18,25 +58,138 @@ public class OutputFileDataReader implements DataReader {
 
     @Override
     public void readData(DataStorage dataStorage) throws IOException {
-        String filePath = outputDir.substring(outputDir.indexOf(':') + 1); // Extracting the file path from the argument
-        BufferedReader reader = new BufferedReader(new FileReader(filePath));
-        String line = reader.readLine();
+        Path source = Paths.get(outputDir.substring(outputDir.indexOf(':') + 1)); // Extracting the file path from the argument
+        List<Callable<SampleBatch>> tasks = new ArrayList<>();
+        for (Path file : findFiles(source)) {
+            for (long[] chunk : splitAtLines(file)) {
+                tasks.add(() -> readChunk(file, chunk[0], chunk[1]));
+            }
+        }
 
-        while (line != null) { // go over each line of the input dir until it is empty
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<Future<SampleBatch>> results = new ArrayList<>(tasks.size());
+            for (Callable<SampleBatch> task : tasks) {
+                results.add(pool.submit(task));
+            }
+            // Later chunks keep parsing while the earlier ones are added
+            for (Future<SampleBatch> result : results) {
+                dataStorage.addBatch(result.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Reading " + source + " was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Error reading " + source, e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
 
-            String[] recordParts = line.split(","); // split the line into 4 parts, each containing a label and one datapoint
+    private static List<Path> findFiles(Path source) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(source)) {
+            files.add(source);
+            return files;
+        }
+        try (DirectoryStream<Path> labelFiles = Files.newDirectoryStream(source, "*.txt")) {
+            for (Path file : labelFiles) {
+                files.add(file);
+            }
+        }
+        return files;
+    }
 
-            // each datapoint is being accessed and stored
-            int patientId = Integer.parseInt(recordParts[0].split(": ")[1].trim());
-            long timestamp = Long.parseLong(recordParts[1].split(": ")[1].trim());
-            String type = recordParts[2].split(": ")[1].trim();
-            double measurementValue = Double.parseDouble(recordParts[3].split(": ")[1].trim());
+    /**
+     * Splits a file into byte ranges of about CHUNK_SIZE that end after a line break.
+     */
+    private static List<long[]> splitAtLines(Path file) throws IOException {
+        List<long[]> chunks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer probe = ByteBuffer.allocate(4096);
+            long start = 0;
+            while (start < size) {
+                long end = Math.min(start + CHUNK_SIZE, size);
+                // Move the end forward to just after the next line break
+                while (end < size) {
+                    probe.clear();
+                    int read = channel.read(probe, end);
+                    int newline = -1;
+                    for (int i = 0; i < read && newline < 0; i++) {
+                        if (probe.get(i) == '\n') {
+                            newline = i;
+                        }
+                    }
+                    if (newline >= 0) {
+                        end += newline + 1;
+                        break;
+                    }
+                    end += Math.max(read, 0);
+                }
+                chunks.add(new long[] {start, end});
+                start = end;
+            }
+        }
+        return chunks;
+    }
+
+    private static SampleBatch readChunk(Path file, long start, long end) throws IOException {
+        byte[] bytes = new byte[(int) (end - start)];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining() && channel.read(buffer, start + buffer.position()) >= 0) {
+                // keep reading until the chunk is complete
+            }
+        }
+        String text = new String(bytes, StandardCharsets.UTF_8);
 
-            // Add patient directly without checking existence as that is being done in addPatientData
-            dataStorage.addPatientData(patientId, measurementValue, type, timestamp);
+        SampleBatch batch = new SampleBatch(text.length() / 64); // a line has about 60 characters
+        int lineStart = 0;
+        while (lineStart < text.length()) {
+            int lineEnd = text.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = text.length();
+            }
+            int trimmedEnd = lineEnd;
+            while (trimmedEnd > lineStart && text.charAt(trimmedEnd - 1) <= ' ') {
+                trimmedEnd--; // also removes the \r of Windows line endings
+            }
+            if (trimmedEnd > lineStart) {
+                parseLine(text, lineStart, trimmedEnd, batch, file);
+            }
+            lineStart = lineEnd + 1;
+        }
+        return batch;
+    }
 
-            line = reader.readLine();
+    /**
+     * Parses a line of the form
+     * "Patient ID: 1, Timestamp: 1621453200, Label: ECG, Data: 0.54".
+     */
+    private static void parseLine(String text, int start, int end, SampleBatch batch, Path file)
+            throws IOException {
+        int timestampAt = text.indexOf(TIMESTAMP, start);
+        int labelAt = timestampAt < 0 ? -1 : text.indexOf(LABEL, timestampAt);
+        int dataAt = labelAt < 0 ? -1 : text.indexOf(DATA, labelAt);
+        if (!text.startsWith(PATIENT_ID, start) || dataAt < 0 || dataAt >= end) {
+            throw new IOException("Invalid line in " + file + ": " + text.substring(start, end));
+        }
+        try {
+            int patientId = Integer.parseInt(text, start + PATIENT_ID.length(), timestampAt, 10);
+            long timestamp = Long.parseLong(text, timestampAt + TIMESTAMP.length(), labelAt, 10);
+            int metricId = MetricRegistry.idOf(text, labelAt + LABEL.length(), dataAt);
+            if (metricId < 0) {
+                throw new IOException("Invalid label in " + file + ": " + text.substring(start, end));
+            }
+            double measurementValue = MessageParser.parseData(text, dataAt + DATA.length(), end);
+            batch.add(patientId, timestamp, metricId, measurementValue);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid number in " + file + ": " + text.substring(start, end), e);
         }
-        reader.close();
     }
+
 }
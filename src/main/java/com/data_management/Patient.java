@@ -1,27 +1,49 @@
 package com.data_management;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntFunction;
 
 /**
  * Represents a patient and manages their medical records.
  * This class stores patient-specific data, allowing for the addition and
  * retrieval
  * of medical records based on specified criteria.
+ * Readings are kept in one columnar {@link MetricSeries} per record type and
+ * PatientRecord objects are only created when records are retrieved.
+ * Each patient guards its series with its own read-write lock, so ingest
+ * threads writing different patients never contend and readers can run
+ * alongside each other.
  */
 public class Patient {
     private int patientId;
-    private List<PatientRecord> patientRecords;
+    private final String id; // the patient ID as text, shared by all alerts of this patient
+    private MetricSeries[] seriesByMetric = new MetricSeries[0]; // one columnar series per metric ID, null if none
+    private final List<MetricSeries> seriesList = new ArrayList<>(); // the same series in creation order
+    private int recordCount; // also used as the arrival number of the next record
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
 
     /**
      * Constructs a new Patient with a specified ID.
-     * Initializes an empty list of patient records.
+     * Initializes an empty set of record series.
      *
      * @param patientId the unique identifier for the patient
      */
     public Patient(int patientId) {
         this.patientId = patientId;
-        this.patientRecords = new ArrayList<>();
+        this.id = String.valueOf(patientId);
+    }
+
+    /**
+     * Returns the unique identifier of this patient.
+     *
+     * @return the patient ID
+     */
+    public int getPatientId() {
+        return patientId;
     }
 
     /**
@@ -36,14 +58,91 @@ public class Patient {
      *                         milliseconds since UNIX epoch
      */
     public void addRecord(double measurementValue, String recordType, long timestamp) {
-        PatientRecord record = new PatientRecord(this.patientId, measurementValue, recordType, timestamp);
-        this.patientRecords.add(record);
+        addRecord(measurementValue, MetricRegistry.idOf(recordType), timestamp);
+    }
+
+    /**
+     * Adds a new record of a registered metric.
+     *
+     * @param measurementValue the measurement value to store in the record
+     * @param metricId         the ID of the record type, see {@link MetricRegistry}
+     * @param timestamp        the time at which the measurement was taken, in
+     *                         milliseconds since UNIX epoch
+     */
+    public void addRecord(double measurementValue, int metricId, long timestamp) {
+        lock.writeLock().lock();
+        try {
+            seriesFor(metricId).add(timestamp, measurementValue, recordCount++);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private MetricSeries seriesFor(int metricId) {
+        if (metricId >= seriesByMetric.length) {
+            seriesByMetric = Arrays.copyOf(seriesByMetric, Math.max(metricId + 1, MetricRegistry.size()));
+        }
+        MetricSeries series = seriesByMetric[metricId];
+        if (series == null) {
+            series = new MetricSeries(patientId, metricId);
+            seriesByMetric[metricId] = series;
+            seriesList.add(series);
+        }
+        return series;
+    }
+
+    /**
+     * Returns the readings of one metric, sorted by timestamp. Each metric is
+     * stored separately, so this only touches the readings of that metric.
+     * The returned series is a read-only snapshot that shares the stored
+     * readings instead of copying them, and does not change when records are
+     * added or compacted later. Readings that compaction has rolled up are not
+     * included.
+     *
+     * @param metricId the ID of the record type, see {@link MetricRegistry}
+     * @return the readings of the metric, empty if the patient has none
+     */
+    public MetricSeries getSeries(int metricId) {
+        lock.readLock().lock();
+        try {
+            MetricSeries series = metricId < seriesByMetric.length ? seriesByMetric[metricId] : null;
+            return series != null ? series.snapshot() : new MetricSeries(patientId, metricId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the readings of a batch at the given positions, taking the patient's
+     * lock only once.
+     *
+     * @param batch     the batch holding the readings
+     * @param positions the positions of this patient's readings in the batch
+     * @param from      the first entry of positions to add
+     * @param to        the entry of positions after the last one to add
+     */
+    void addRecords(SampleBatch batch, int[] positions, int from, int to) {
+        lock.writeLock().lock();
+        try {
+            for (int i = from; i < to; i++) {
+                int position = positions[i];
+                seriesFor(batch.getMetricId(position)).add(batch.getTimestamp(position), batch.getValue(position),
+                        recordCount++);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
      * Retrieves a list of PatientRecord objects for this patient that fall within a
      * specified time range.
-     * The method filters records based on the start and end times provided.
+     * Each record series is sorted by timestamp, so the matching part of every
+     * series is found with a binary search and only matching records are
+     * created. The result is ordered by timestamp.
+     * Where compaction has rolled up old readings, the range is answered with
+     * one record per rollup bucket from the finest tier still holding that
+     * time, carrying the bucket's mean and start time.
      *
      * @param startTime the start of the time range, in milliseconds since UNIX
      *                  epoch
@@ -52,21 +151,123 @@ public class Patient {
      *         range
      */
     public List<PatientRecord> getRecords(long startTime, long endTime) {
-        List<PatientRecord> recordsInTimeFrame = new ArrayList<>();
-        for (PatientRecord record : patientRecords) {
-            long recordTimestamp = record.getTimestamp();
-            if (recordTimestamp >= startTime && recordTimestamp <= endTime) {
-                recordsInTimeFrame.add(record);
+        lock.readLock().lock();
+        try {
+            return collectRecords(startTime, endTime);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<PatientRecord> collectRecords(long startTime, long endTime) {
+        MetricSeries[] series = seriesList.toArray(new MetricSeries[0]);
+        List<List<PatientRecord>> rollups = new ArrayList<>(series.length); // older than the raw readings
+        int[] rollupCursors = new int[series.length];
+        int[] cursors = new int[series.length];
+        int[] ends = new int[series.length];
+        int matching = 0;
+        for (int s = 0; s < series.length; s++) {
+            List<PatientRecord> seriesRollups = new ArrayList<>();
+            series[s].collectRollups(startTime, endTime, seriesRollups);
+            rollups.add(seriesRollups);
+            cursors[s] = series[s].firstIndexAtOrAfter(startTime);
+            ends[s] = Math.max(cursors[s], series[s].firstIndexAfter(endTime));
+            matching += seriesRollups.size() + ends[s] - cursors[s];
+        }
+
+        List<PatientRecord> recordsInTimeFrame = new ArrayList<>(matching);
+        for (int i = 0; i < matching; i++) {
+            int next = -1;
+            long nextTimestamp = 0;
+            long nextSequence = 0;
+            for (int s = 0; s < series.length; s++) {
+                long timestamp;
+                long sequence;
+                if (rollupCursors[s] < rollups.get(s).size()) {
+                    timestamp = rollups.get(s).get(rollupCursors[s]).getTimestamp();
+                    sequence = -1; // rollups have no arrival number and come before raw readings
+                } else if (cursors[s] < ends[s]) {
+                    timestamp = series[s].getTimestamp(cursors[s]);
+                    sequence = series[s].getSequence(cursors[s]);
+                } else {
+                    continue;
+                }
+                if (next < 0 || timestamp < nextTimestamp || (timestamp == nextTimestamp && sequence < nextSequence)) {
+                    next = s;
+                    nextTimestamp = timestamp;
+                    nextSequence = sequence;
+                }
+            }
+            if (rollupCursors[next] < rollups.get(next).size()) {
+                recordsInTimeFrame.add(rollups.get(next).get(rollupCursors[next]++));
+            } else {
+                recordsInTimeFrame.add(series[next].getRecord(cursors[next]++));
             }
         }
         return recordsInTimeFrame;
     }
 
+    /**
+     * Retrieves all raw records of this patient in the order they were added.
+     * Readings that were rolled up or discarded by compaction are not included.
+     *
+     * @return a new list of PatientRecord objects
+     */
     public List<PatientRecord> getAllRecords() {
-        return this.patientRecords;
+        lock.readLock().lock();
+        try {
+            int total = 0;
+            for (MetricSeries series : seriesList) {
+                total += series.size();
+            }
+            if (total == recordCount) {
+                // Nothing was compacted away, so the arrival numbers are exactly 0 to total - 1
+                PatientRecord[] records = new PatientRecord[total];
+                for (MetricSeries series : seriesList) {
+                    for (int i = 0; i < series.size(); i++) {
+                        records[series.getSequence(i)] = series.getRecord(i);
+                    }
+                }
+                return new ArrayList<>(Arrays.asList(records));
+            }
+            // The arrival number in the high half and the position in the low half sort by arrival
+            List<PatientRecord> unordered = new ArrayList<>(total);
+            long[] keys = new long[total];
+            for (MetricSeries series : seriesList) {
+                for (int i = 0; i < series.size(); i++) {
+                    keys[unordered.size()] = ((long) series.getSequence(i) << 32) | unordered.size();
+                    unordered.add(series.getRecord(i));
+                }
+            }
+            Arrays.sort(keys);
+            List<PatientRecord> records = new ArrayList<>(total);
+            for (long key : keys) {
+                records.add(unordered.get((int) key));
+            }
+            return records;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Applies the retention policies to this patient's records, see
+     * {@link RetentionPolicy}.
+     *
+     * @param policies returns the retention policy of a metric ID
+     */
+    void compact(IntFunction<RetentionPolicy> policies) {
+        lock.writeLock().lock();
+        try {
+            for (MetricSeries series : seriesList) {
+                series.compact(policies.apply(series.getMetricId()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     public String getId() {
-        return String.valueOf(this.patientId);
+        return id;
     }
 }
@@ -0,0 +1,28 @@
+package com.data_management;
+
+/**
+ * Receives every reading as soon as it has been stored by {@link DataStorage}.
+ * Listeners are called on the thread that added the data, so implementations
+ * should be quick and must be safe to call from several threads.
+ */
+public interface PatientDataListener {
+    /**
+     * Called after a reading has been added to a patient.
+     *
+     * @param patient          the patient the reading was stored for
+     * @param metricId         the ID of the record type, see {@link MetricRegistry}
+     * @param measurementValue the measured value
+     * @param timestamp        the time of the reading, in milliseconds since the
+     *                         Unix epoch
+     */
+    void onPatientData(Patient patient, int metricId, double measurementValue, long timestamp);
+
+    /**
+     * Called after a patient and all their readings have been removed, so state
+     * kept for the patient can be released. Does nothing by default.
+     *
+     * @param patientId the ID of the removed patient
+     */
+    default void onPatientRemoved(int patientId) {
+    }
+}
@@ -11,7 +11,7 @@ package com.data_management;
  */
 public class PatientRecord {
     private int patientId;
-    private String recordType; // Example: ECG, blood pressure, etc.
+    private int metricId; // Example: ECG, blood pressure, etc., see MetricRegistry
     private double measurementValue; // Example: heart rate
     private long timestamp;
 
@@ -24,11 +24,34 @@ public class PatientRecord {
      *                         Pressure")
      * @param timestamp        the time at which the measurement was recorded, in
      *                         milliseconds since epoch
+     * @throws IllegalArgumentException if the record type is null or cannot be
+     *                                  registered, see {@link MetricRegistry}
      */
     public PatientRecord(int patientId, double measurementValue, String recordType, long timestamp) {
+        this(patientId, measurementValue, metricIdOf(recordType), timestamp);
+    }
+
+    private static int metricIdOf(String recordType) {
+        if (recordType == null) {
+            throw new IllegalArgumentException("Record type must not be null");
+        }
+        return MetricRegistry.idOf(recordType);
+    }
+
+    /**
+     * Constructs a new patient record for a registered metric.
+     *
+     * @param patientId        the unique identifier for the patient
+     * @param measurementValue the numerical value of the recorded measurement
+     * @param metricId         the ID of the measurement type, see
+     *                         {@link MetricRegistry}
+     * @param timestamp        the time at which the measurement was recorded, in
+     *                         milliseconds since epoch
+     */
+    public PatientRecord(int patientId, double measurementValue, int metricId, long timestamp) {
         this.patientId = patientId;
         this.measurementValue = measurementValue;
-        this.recordType = recordType;
+        this.metricId = metricId;
         this.timestamp = timestamp;
     }
 
@@ -65,6 +88,15 @@ public class PatientRecord {
      * @return the record type
      */
     public String getRecordType() {
-        return recordType;
+        return MetricRegistry.labelOf(metricId);
+    }
+
+    /**
+     * Returns the metric ID of the record type.
+     *
+     * @return the metric ID, see {@link MetricRegistry}
+     */
+    public int getMetricId() {
+        return metricId;
     }
 }
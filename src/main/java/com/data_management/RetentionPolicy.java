@@ -0,0 +1,123 @@
+package com.data_management;
+
+import java.util.Arrays;
+
+/**
+ * Describes how long the readings of a metric are kept.
+ * Raw readings are kept for the raw retention period. Older readings are
+ * rolled up into the first tier, which keeps the minimum, maximum and mean
+ * of fixed time buckets; rollups older than a tier's retention period move on
+ * to the next, coarser tier, and those older than the last tier's retention
+ * period are discarded.
+ * Periods are measured back from the newest reading of the metric, so a
+ * history read from files is treated the same as live data.
+ * <p>
+ * Example: raw readings for 1 hour, 1-second rollups for 24 hours and
+ * 1-minute rollups for 30 days:
+ * <pre>
+ * new RetentionPolicy(TimeUnit.HOURS.toMillis(1))
+ *         .withTier(TimeUnit.SECONDS.toMillis(1), TimeUnit.HOURS.toMillis(24))
+ *         .withTier(TimeUnit.MINUTES.toMillis(1), TimeUnit.DAYS.toMillis(30));
+ * </pre>
+ */
+public final class RetentionPolicy {
+    /** Keeps every raw reading forever; this is the default. */
+    public static final RetentionPolicy KEEP_ALL = new RetentionPolicy(Long.MAX_VALUE);
+
+    private final long rawRetentionMillis;
+    private final long[] tierResolutions;
+    private final long[] tierRetentions;
+
+    /**
+     * Constructs a policy that keeps raw readings for the given period and
+     * discards older ones.
+     *
+     * @param rawRetentionMillis how long raw readings are kept, in milliseconds
+     * @throws IllegalArgumentException if the period is not positive
+     */
+    public RetentionPolicy(long rawRetentionMillis) {
+        this(rawRetentionMillis, new long[0], new long[0]);
+        if (rawRetentionMillis <= 0) {
+            throw new IllegalArgumentException("Raw retention must be positive: " + rawRetentionMillis);
+        }
+    }
+
+    private RetentionPolicy(long rawRetentionMillis, long[] tierResolutions, long[] tierRetentions) {
+        this.rawRetentionMillis = rawRetentionMillis;
+        this.tierResolutions = tierResolutions;
+        this.tierRetentions = tierRetentions;
+    }
+
+    /**
+     * Returns a policy with an additional, coarser rollup tier.
+     *
+     * @param resolutionMillis the length of the time buckets of the tier, in
+     *                         milliseconds
+     * @param retentionMillis  how long rollups of the tier are kept, in
+     *                         milliseconds
+     * @return the extended policy
+     * @throws IllegalArgumentException if the tier is not coarser and kept longer
+     *                                  than the previous tier or the raw readings
+     */
+    public RetentionPolicy withTier(long resolutionMillis, long retentionMillis) {
+        int tiers = tierResolutions.length;
+        long previousResolution = tiers == 0 ? 0 : tierResolutions[tiers - 1];
+        long previousRetention = tiers == 0 ? rawRetentionMillis : tierRetentions[tiers - 1];
+        if (rawRetentionMillis == Long.MAX_VALUE) {
+            throw new IllegalArgumentException("Readings that are kept forever cannot be rolled up");
+        }
+        if (resolutionMillis <= previousResolution) {
+            throw new IllegalArgumentException("Tier resolution must be coarser than " + previousResolution + " ms");
+        }
+        if (retentionMillis <= previousRetention) {
+            throw new IllegalArgumentException("Tier retention must be longer than " + previousRetention + " ms");
+        }
+        long[] resolutions = Arrays.copyOf(tierResolutions, tiers + 1);
+        long[] retentions = Arrays.copyOf(tierRetentions, tiers + 1);
+        resolutions[tiers] = resolutionMillis;
+        retentions[tiers] = retentionMillis;
+        return new RetentionPolicy(rawRetentionMillis, resolutions, retentions);
+    }
+
+    /**
+     * Returns how long raw readings are kept.
+     *
+     * @return the raw retention period in milliseconds
+     */
+    public long getRawRetentionMillis() {
+        return rawRetentionMillis;
+    }
+
+    /**
+     * Returns the number of rollup tiers.
+     *
+     * @return the number of tiers
+     */
+    public int getTierCount() {
+        return tierResolutions.length;
+    }
+
+    /**
+     * Returns the bucket length of a rollup tier.
+     *
+     * @param tier the tier, from 0 (finest) to {@code getTierCount() - 1}
+     * @return the bucket length in milliseconds
+     */
+    public long getTierResolutionMillis(int tier) {
+        return tierResolutions[tier];
+    }
+
+    /**
+     * Returns how long the rollups of a tier are kept.
+     *
+     * @param tier the tier, from 0 (finest) to {@code getTierCount() - 1}
+     * @return the retention period in milliseconds
+     */
+    public long getTierRetentionMillis(int tier) {
+        return tierRetentions[tier];
+    }
+
+    boolean keepsEverything() {
+        return rawRetentionMillis == Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,185 @@
+package com.data_management;
+
+import java.util.Arrays;
+
+/**
+ * Stores one rollup tier of a {@link MetricSeries}: the minimum, maximum,
+ * mean and number of the readings in fixed time buckets, sorted by bucket
+ * start. Rollups are created by compaction, see {@link RetentionPolicy}.
+ */
+public class RollupSeries {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final long resolutionMillis;
+    private long[] bucketStarts = new long[INITIAL_CAPACITY];
+    private double[] mins = new double[INITIAL_CAPACITY];
+    private double[] maxs = new double[INITIAL_CAPACITY];
+    private double[] sums = new double[INITIAL_CAPACITY];
+    private int[] counts = new int[INITIAL_CAPACITY];
+    private int size;
+
+    RollupSeries(long resolutionMillis) {
+        this.resolutionMillis = resolutionMillis;
+    }
+
+    /**
+     * Adds a raw reading to the bucket containing its timestamp.
+     */
+    void addReading(long timestamp, double value) {
+        add(timestamp, value, value, value, 1);
+    }
+
+    /**
+     * Merges a summary of readings into the bucket containing the given time.
+     */
+    void add(long timestamp, double min, double max, double sum, int count) {
+        long bucketStart = Math.floorDiv(timestamp, resolutionMillis) * resolutionMillis;
+        int index;
+        if (size == 0 || bucketStarts[size - 1] < bucketStart) {
+            index = size; // the usual case: a bucket after all others
+        } else if (bucketStarts[size - 1] == bucketStart) {
+            index = size - 1;
+        } else {
+            index = firstIndexAtOrAfter(bucketStart);
+        }
+        if (index < size && bucketStarts[index] == bucketStart) {
+            mins[index] = Math.min(mins[index], min);
+            maxs[index] = Math.max(maxs[index], max);
+            sums[index] += sum;
+            counts[index] += count;
+            return;
+        }
+        if (size == bucketStarts.length) {
+            int capacity = size * 2;
+            bucketStarts = Arrays.copyOf(bucketStarts, capacity);
+            mins = Arrays.copyOf(mins, capacity);
+            maxs = Arrays.copyOf(maxs, capacity);
+            sums = Arrays.copyOf(sums, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+        }
+        int moved = size - index;
+        System.arraycopy(bucketStarts, index, bucketStarts, index + 1, moved);
+        System.arraycopy(mins, index, mins, index + 1, moved);
+        System.arraycopy(maxs, index, maxs, index + 1, moved);
+        System.arraycopy(sums, index, sums, index + 1, moved);
+        System.arraycopy(counts, index, counts, index + 1, moved);
+        bucketStarts[index] = bucketStart;
+        mins[index] = min;
+        maxs[index] = max;
+        sums[index] = sum;
+        counts[index] = count;
+        size++;
+    }
+
+    /**
+     * Removes the buckets starting before the cutoff, merging them into the
+     * next tier if there is one.
+     */
+    void expire(long cutoff, RollupSeries next) {
+        int expired = firstIndexAtOrAfter(cutoff);
+        if (expired == 0) {
+            return;
+        }
+        if (next != null) {
+            for (int i = 0; i < expired; i++) {
+                next.add(bucketStarts[i], mins[i], maxs[i], sums[i], counts[i]);
+            }
+        }
+        size -= expired;
+        System.arraycopy(bucketStarts, expired, bucketStarts, 0, size);
+        System.arraycopy(mins, expired, mins, 0, size);
+        System.arraycopy(maxs, expired, maxs, 0, size);
+        System.arraycopy(sums, expired, sums, 0, size);
+        System.arraycopy(counts, expired, counts, 0, size);
+    }
+
+    /**
+     * Returns the number of buckets in this tier.
+     *
+     * @return the number of buckets
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the length of the buckets of this tier.
+     *
+     * @return the bucket length in milliseconds
+     */
+    public long getResolutionMillis() {
+        return resolutionMillis;
+    }
+
+    /**
+     * Returns the start of the bucket at the given position.
+     *
+     * @param index the position of the bucket, from 0 to {@code size() - 1}
+     * @return the bucket start in milliseconds since UNIX epoch
+     */
+    public long getBucketStart(int index) {
+        return bucketStarts[index];
+    }
+
+    /**
+     * Returns the smallest reading in the bucket at the given position.
+     *
+     * @param index the position of the bucket, from 0 to {@code size() - 1}
+     * @return the minimum value
+     */
+    public double getMin(int index) {
+        return mins[index];
+    }
+
+    /**
+     * Returns the largest reading in the bucket at the given position.
+     *
+     * @param index the position of the bucket, from 0 to {@code size() - 1}
+     * @return the maximum value
+     */
+    public double getMax(int index) {
+        return maxs[index];
+    }
+
+    /**
+     * Returns the mean of the readings in the bucket at the given position.
+     *
+     * @param index the position of the bucket, from 0 to {@code size() - 1}
+     * @return the mean value
+     */
+    public double getMean(int index) {
+        return sums[index] / counts[index];
+    }
+
+    /**
+     * Returns the number of readings in the bucket at the given position.
+     *
+     * @param index the position of the bucket, from 0 to {@code size() - 1}
+     * @return the number of readings
+     */
+    public int getCount(int index) {
+        return counts[index];
+    }
+
+    /**
+     * Returns the position of the first bucket starting at or after the given
+     * time.
+     *
+     * @param timestamp the time to search for, in milliseconds since UNIX epoch
+     * @return the index of the first matching bucket, or {@code size()} if every
+     *         bucket starts earlier
+     */
+    public int firstIndexAtOrAfter(long timestamp) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (bucketStarts[mid] < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
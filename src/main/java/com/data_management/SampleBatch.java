@@ -0,0 +1,128 @@
+package com.data_management;
+
+import java.util.Arrays;
+
+/**
+ * A batch of readings for {@link DataStorage#addBatch(SampleBatch)}, kept as one
+ * array per field instead of one object per reading. Readers fill a batch with
+ * {@link #add}, hand it to the storage and {@link #clear()} it for reuse.
+ * A batch is not thread-safe.
+ */
+public class SampleBatch {
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private int[] patientIds;
+    private long[] timestamps;
+    private int[] metricIds;
+    private double[] values;
+    private int size;
+
+    /**
+     * Constructs an empty batch with room for 1024 readings.
+     */
+    public SampleBatch() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty batch.
+     *
+     * @param capacity the number of readings the batch holds before it grows
+     */
+    public SampleBatch(int capacity) {
+        capacity = Math.max(capacity, 1);
+        patientIds = new int[capacity];
+        timestamps = new long[capacity];
+        metricIds = new int[capacity];
+        values = new double[capacity];
+    }
+
+    /**
+     * Appends a reading, growing the batch if needed.
+     *
+     * @param patientId the unique identifier of the patient
+     * @param timestamp the time of the reading, in milliseconds since the Unix
+     *                  epoch
+     * @param metricId  the ID of the reading's metric, see {@link MetricRegistry}
+     * @param value     the measured value
+     */
+    public void add(int patientId, long timestamp, int metricId, double value) {
+        if (size == patientIds.length) {
+            int capacity = size * 2;
+            patientIds = Arrays.copyOf(patientIds, capacity);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            metricIds = Arrays.copyOf(metricIds, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        patientIds[size] = patientId;
+        timestamps[size] = timestamp;
+        metricIds[size] = metricId;
+        values[size] = value;
+        size++;
+    }
+
+    /**
+     * Removes all readings but keeps the arrays for reuse.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Returns the number of readings in the batch.
+     *
+     * @return the number of readings
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether the batch has no readings.
+     *
+     * @return true if the batch is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the patient ID of the reading at the given position.
+     *
+     * @param index the position of the reading, from 0 to {@code size() - 1}
+     * @return the patient ID
+     */
+    public int getPatientId(int index) {
+        return patientIds[index];
+    }
+
+    /**
+     * Returns the timestamp of the reading at the given position.
+     *
+     * @param index the position of the reading, from 0 to {@code size() - 1}
+     * @return the timestamp in milliseconds since the Unix epoch
+     */
+    public long getTimestamp(int index) {
+        return timestamps[index];
+    }
+
+    /**
+     * Returns the metric ID of the reading at the given position.
+     *
+     * @param index the position of the reading, from 0 to {@code size() - 1}
+     * @return the metric ID, see {@link MetricRegistry}
+     */
+    public int getMetricId(int index) {
+        return metricIds[index];
+    }
+
+    /**
+     * Returns the measured value of the reading at the given position.
+     *
+     * @param index the position of the reading, from 0 to {@code size() - 1}
+     * @return the measured value
+     */
+    public double getValue(int index) {
+        return values[index];
+    }
+}
@@ -1,8 +1,10 @@
 package com.data_management;
 
+import com.cardio_generator.outputs.BinarySegmentFormat;
 import org.java_websocket.handshake.ServerHandshake;
 
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.net.URISyntaxException;
 import java.io.IOException;
 import java.util.concurrent.TimeUnit;
@@ -13,9 +15,14 @@ import java.util.function.Consumer;
  * WebSocket connections, message handling, and error management.
  */
 public class WebSocketClient implements DataReader {
+    private static final long DEBUG_SAMPLE_INTERVAL = 10_000; // print one in every 10,000 messages
+
     private org.java_websocket.client.WebSocketClient client;
     private DataStorage dataStorage;
     private Consumer<Exception> onErrorCallback;
+    private final MessageParser parser = new MessageParser(); // messages arrive on the single reader thread
+    private long messageCount;
+    private final SampleBatch batch = new SampleBatch(); // reused for every binary frame
 
     /**
      * Constructs a WebSocketClient with the specified DataStorage.
@@ -50,10 +57,14 @@ public class WebSocketClient implements DataReader {
 
                 @Override
                 public void onMessage(String message) {
-                    System.out.println("Received message: " + message);
                     handleMessage(message);
                 }
 
+                @Override
+                public void onMessage(ByteBuffer bytes) {
+                    handleBinaryMessage(bytes);
+                }
+
                 @Override
                 public void onClose(int code, String reason, boolean remote) {
                     System.out.println("Disconnected from WebSocket server with code " + code + ", reason: " + reason);
@@ -91,28 +102,65 @@ public class WebSocketClient implements DataReader {
 
     /**
      * Handles incoming messages by parsing and storing patient data.
+     * Only a sample of the messages is printed, as printing every message costs
+     * more than handling it.
      * @param message The received message.
      */
     private void handleMessage(String message) {
-        System.out.println("Handling message: " + message);
+        if (++messageCount % DEBUG_SAMPLE_INTERVAL == 0) {
+            System.out.println("Handled " + messageCount + " messages, latest: " + message);
+        }
         try {
-            String[] recordParts = message.split(",");
-            if (recordParts.length != 4) {
+            if (!parser.parse(message)) {
                 System.err.println("Invalid message format: " + message);
                 return;
             }
-            int patientId = Integer.parseInt(recordParts[0].trim());
-            long timestamp = Long.parseLong(recordParts[1].trim());
-            String label = recordParts[2].trim();
-            double measurementValue = Double.parseDouble(recordParts[3].trim());
-
-            dataStorage.addPatientData(patientId, measurementValue, label, timestamp);
+            dataStorage.addPatientData(parser.getPatientId(), parser.getMeasurementValue(), parser.getMetricId(),
+                    parser.getTimestamp());
         } catch (NumberFormatException e) {
             System.err.println("An error occurred while parsing the message: " + message);
             e.printStackTrace();
         }
     }
 
+    /**
+     * Handles a batched binary frame: a segment header followed by fixed-width
+     * records, see {@link BinarySegmentFormat}. The records of a frame are
+     * stored as one batch.
+     * @param frame The received frame.
+     */
+    private void handleBinaryMessage(ByteBuffer frame) {
+        if (frame.remaining() < BinarySegmentFormat.HEADER_SIZE || frame.getInt() != BinarySegmentFormat.MAGIC
+                || frame.getShort() != BinarySegmentFormat.VERSION) {
+            System.err.println("Invalid binary message of " + frame.limit() + " bytes");
+            return;
+        }
+        frame.getShort(); // reserved
+        if (frame.remaining() % BinarySegmentFormat.RECORD_SIZE != 0) {
+            System.err.println("Binary message ends with an incomplete record");
+        }
+        batch.clear();
+        while (frame.remaining() >= BinarySegmentFormat.RECORD_SIZE) {
+            int patientId = frame.getInt();
+            long timestamp = frame.getLong();
+            short segmentMetricId = frame.getShort();
+            double value = frame.getDouble();
+            int metricId;
+            try {
+                metricId = BinarySegmentDataReader.metricId(segmentMetricId);
+            } catch (IllegalArgumentException e) {
+                System.err.println(e.getMessage());
+                continue;
+            }
+            if (++messageCount % DEBUG_SAMPLE_INTERVAL == 0) {
+                System.out.println("Handled " + messageCount + " messages, latest: " + patientId + "," + timestamp
+                        + "," + MetricRegistry.labelOf(metricId) + "," + value);
+            }
+            batch.add(patientId, timestamp, metricId, value);
+        }
+        dataStorage.addBatch(batch);
+    }
+
     /**
      * Checks if the WebSocket client is currently open.
      * @return True if the client is open, false otherwise.
@@ -137,4 +185,12 @@ public class WebSocketClient implements DataReader {
     public void simulateMessage(String message) {
         handleMessage(message);
     }
+
+    /**
+     * Simulates receiving a binary frame for testing purposes.
+     * @param frame The frame to simulate.
+     */
+    public void simulateMessage(ByteBuffer frame) {
+        handleBinaryMessage(frame);
+    }
 }
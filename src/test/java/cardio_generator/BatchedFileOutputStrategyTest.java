@@ -0,0 +1,52 @@
+package cardio_generator;
+
+import com.cardio_generator.outputs.BatchedFileOutputStrategy;
+import com.cardio_generator.outputs.BinarySegmentFormat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BatchedFileOutputStrategyTest {
+
+    @TempDir
+    Path outputDirectory;
+
+    @Test
+    void testWritesEveryQueuedSampleOnClose() throws IOException {
+        BatchedFileOutputStrategy strategy = new BatchedFileOutputStrategy(outputDirectory.toString(), 50,
+                BatchedFileOutputStrategy.FsyncPolicy.ON_FLUSH, 16); // small queue so output() has to wait
+        for (int i = 0; i < 1000; i++) {
+            strategy.output(i % 5 + 1, 1621453200L + i, i % 2 == 0 ? "ECG" : "Saturation", Double.toString(i));
+        }
+        strategy.close();
+
+        List<String> ecgLines = Files.readAllLines(outputDirectory.resolve("ECG.txt"));
+        List<String> saturationLines = Files.readAllLines(outputDirectory.resolve("Saturation.txt"));
+        assertEquals(500, ecgLines.size());
+        assertEquals(500, saturationLines.size());
+        assertEquals("Patient ID: 1, Timestamp: 1621453200, Label: ECG, Data: 0.0", ecgLines.get(0));
+        assertEquals("Patient ID: 5, Timestamp: 1621454199, Label: Saturation, Data: 999.0", saturationLines.get(499));
+    }
+
+    @Test
+    void testNumericReadingsAreWrittenAsText() throws IOException {
+        BatchedFileOutputStrategy strategy = new BatchedFileOutputStrategy(outputDirectory.toString(), 50,
+                BatchedFileOutputStrategy.FsyncPolicy.NEVER);
+        strategy.output(1, 1621453200L, BinarySegmentFormat.SATURATION, 97);
+        strategy.output(2, 1621453201L, "Saturation", "96.0%");
+        strategy.output(3, 1621453202L, BinarySegmentFormat.ALERT, 1);
+        strategy.close();
+
+        List<String> saturationLines = Files.readAllLines(outputDirectory.resolve("Saturation.txt"));
+        assertEquals("Patient ID: 1, Timestamp: 1621453200, Label: Saturation, Data: 97.0%", saturationLines.get(0));
+        assertEquals("Patient ID: 2, Timestamp: 1621453201, Label: Saturation, Data: 96.0%", saturationLines.get(1));
+        assertEquals("Patient ID: 3, Timestamp: 1621453202, Label: Alert, Data: triggered",
+                Files.readAllLines(outputDirectory.resolve("Alert.txt")).get(0));
+    }
+}
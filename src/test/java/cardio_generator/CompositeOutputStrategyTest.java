@@ -0,0 +1,72 @@
+package cardio_generator;
+
+import com.cardio_generator.outputs.BinarySegmentFormat;
+import com.cardio_generator.outputs.CompositeOutputStrategy;
+import com.cardio_generator.outputs.OutputStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompositeOutputStrategyTest {
+
+    @Test
+    void testSlowSinkDoesNotDelayOthers() throws InterruptedException {
+        List<String> fastLines = new CopyOnWriteArrayList<>();
+        List<String> slowLines = new CopyOnWriteArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+        OutputStrategy fast = (patientId, timestamp, label, data) -> fastLines.add(label + "," + data);
+        OutputStrategy slow = (patientId, timestamp, label, data) -> {
+            try {
+                release.await(); // stuck until the test releases it
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            slowLines.add(label + "," + data);
+        };
+
+        CompositeOutputStrategy composite = new CompositeOutputStrategy(Arrays.asList(fast, slow), 256);
+        for (int i = 0; i < 3000; i++) {
+            composite.output(i, 1621453200L + i, BinarySegmentFormat.SATURATION, 97);
+            if (i % 10 == 9) {
+                Thread.sleep(1); // slow enough for the fast sink to keep up
+            }
+        }
+        for (int attempt = 0; attempt < 50 && fastLines.size() < 3000; attempt++) {
+            Thread.sleep(20);
+        }
+        assertEquals(3000, fastLines.size());
+        assertEquals("Saturation,97.0%", fastLines.get(0));
+        assertEquals(0, composite.getDroppedSamples(0));
+        // The stuck sink holds at most one batch taken from its queue plus a full queue
+        assertTrue(composite.getDroppedSamples(1) >= 3000 - 2 * 256);
+
+        release.countDown();
+        composite.close();
+        assertEquals(3000, slowLines.size() + composite.getDroppedSamples(1));
+    }
+
+    @Test
+    void testFailingSampleDoesNotLoseTheRestOfTheBatch() {
+        List<Integer> delivered = new CopyOnWriteArrayList<>();
+        OutputStrategy flaky = (patientId, timestamp, label, data) -> {
+            if (patientId % 100 == 0) {
+                throw new IllegalStateException("sink failed on patient " + patientId);
+            }
+            delivered.add(patientId);
+        };
+
+        CompositeOutputStrategy composite = new CompositeOutputStrategy(List.of(flaky), 4096);
+        for (int i = 0; i < 1000; i++) {
+            composite.output(i, 1621453200L, "ECG", "0.5");
+        }
+        composite.close();
+        assertEquals(990, delivered.size());
+        assertEquals(10, composite.getDroppedSamples(0));
+    }
+}
@@ -0,0 +1,65 @@
+package cardio_generator;
+
+import com.cardio_generator.outputs.NioTcpOutputStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NioTcpOutputStrategyTest {
+
+    @Test
+    void testEveryClientReceivesEveryLine() throws Exception {
+        try (NioTcpOutputStrategy output = new NioTcpOutputStrategy(0, NioTcpOutputStrategy.SlowClientPolicy.BLOCK, 4096);
+                Socket first = new Socket("localhost", output.getPort());
+                Socket second = new Socket("localhost", output.getPort())) {
+            awaitClients(output, 2);
+            for (int i = 0; i < 1000; i++) {
+                output.output(1, i, "ECG", Double.toString(i * 0.5));
+            }
+
+            for (Socket client : new Socket[] {first, second}) {
+                BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+                for (int i = 0; i < 1000; i++) {
+                    assertEquals("1," + i + ",ECG," + (i * 0.5), reader.readLine());
+                }
+            }
+            assertEquals(0, output.getDroppedLines());
+        }
+    }
+
+    @Test
+    void testSlowClientDoesNotStallOutput() throws Exception {
+        try (NioTcpOutputStrategy output = new NioTcpOutputStrategy(0, NioTcpOutputStrategy.SlowClientPolicy.DROP, 4096);
+                Socket slowClient = new Socket()) {
+            slowClient.setReceiveBufferSize(4096);
+            slowClient.connect(new InetSocketAddress("localhost", output.getPort()));
+            awaitClients(output, 1);
+
+            // The client never reads, so its buffers fill up and later lines are dropped
+            for (int i = 0; i < 200_000; i++) {
+                output.output(1, i, "ECG", "0.123456789");
+            }
+            assertTrue(output.getDroppedLines() > 0);
+            assertEquals(1, output.getClientCount());
+        }
+    }
+
+    private static void awaitClients(NioTcpOutputStrategy output, int count) throws InterruptedException, IOException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (output.getClientCount() < count) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IOException("Clients were not accepted");
+            }
+            Thread.sleep(10);
+        }
+    }
+}
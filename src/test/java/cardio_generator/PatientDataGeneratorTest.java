@@ -0,0 +1,69 @@
+package cardio_generator;
+
+import com.cardio_generator.generators.AlertGenerator;
+import com.cardio_generator.generators.BloodLevelsDataGenerator;
+import com.cardio_generator.generators.BloodPressureDataGenerator;
+import com.cardio_generator.generators.BloodSaturationDataGenerator;
+import com.cardio_generator.generators.ECGDataGenerator;
+import com.cardio_generator.generators.PatientDataGenerator;
+import com.cardio_generator.outputs.OutputStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PatientDataGeneratorTest {
+
+    private static final int PATIENTS = 100;
+
+    @Test
+    void testBatchMatchesSingleGeneration() {
+        assertBatchMatches(seed -> new ECGDataGenerator(PATIENTS, seed));
+        assertBatchMatches(seed -> new BloodSaturationDataGenerator(PATIENTS, seed));
+        assertBatchMatches(seed -> new BloodPressureDataGenerator(PATIENTS, seed));
+        assertBatchMatches(seed -> new BloodLevelsDataGenerator(PATIENTS, seed));
+        assertBatchMatches(seed -> new AlertGenerator(PATIENTS, seed));
+    }
+
+    @Test
+    void testBatchStampsEverySample() {
+        int[] patientIds = {5, 3, 9, 1};
+        List<String> samples = new ArrayList<>();
+        new ECGDataGenerator(PATIENTS, 1).generateBatch(patientIds, 1, 3, 1234, collect(samples, true));
+        assertEquals(List.of("3@1234", "9@1234"), samples);
+    }
+
+    private static void assertBatchMatches(IntFunction<PatientDataGenerator> generators) {
+        PatientDataGenerator single = generators.apply(42);
+        PatientDataGenerator batched = generators.apply(42);
+        int[] patientIds = new int[PATIENTS];
+        for (int i = 0; i < PATIENTS; i++) {
+            patientIds[i] = PATIENTS - i; // not in ID order
+        }
+        List<String> expected = new ArrayList<>();
+        List<String> actual = new ArrayList<>();
+        for (int tick = 0; tick < 20; tick++) {
+            for (int patientId : patientIds) {
+                single.generate(patientId, collect(expected, false));
+            }
+            batched.generateBatch(patientIds, 0, PATIENTS, tick, collect(actual, false));
+        }
+        assertEquals(expected, actual);
+    }
+
+    private static OutputStrategy collect(List<String> samples, boolean timestamps) {
+        return new OutputStrategy() {
+            @Override
+            public void output(int patientId, long timestamp, String label, String data) {
+            }
+
+            @Override
+            public void output(int patientId, long timestamp, int metricId, double value) {
+                samples.add(timestamps ? patientId + "@" + timestamp : patientId + ":" + metricId + "=" + value);
+            }
+        };
+    }
+}
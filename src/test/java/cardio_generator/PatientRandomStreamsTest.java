@@ -0,0 +1,55 @@
+package cardio_generator;
+
+import com.cardio_generator.generators.BloodPressureDataGenerator;
+import com.cardio_generator.generators.PatientRandomStreams;
+import com.cardio_generator.outputs.OutputStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class PatientRandomStreamsTest {
+
+    @Test
+    void testSameSeedGivesSameStreams() {
+        SplittableRandom[] first = PatientRandomStreams.create(3, 42);
+        SplittableRandom[] second = PatientRandomStreams.create(3, 42);
+        for (int patientId = 1; patientId <= 3; patientId++) {
+            assertEquals(first[patientId].nextLong(), second[patientId].nextLong());
+        }
+        assertNotEquals(first[1].nextLong(), first[2].nextLong());
+    }
+
+    @Test
+    void testGeneratorIsReplayableRegardlessOfPatientOrder() {
+        List<Double> forward = new ArrayList<>();
+        List<Double> backward = new ArrayList<>();
+        BloodPressureDataGenerator forwardGenerator = new BloodPressureDataGenerator(2, 7);
+        BloodPressureDataGenerator backwardGenerator = new BloodPressureDataGenerator(2, 7);
+        for (int i = 0; i < 10; i++) {
+            forwardGenerator.generate(1, collect(forward));
+            forwardGenerator.generate(2, collect(new ArrayList<>()));
+            // The other patient runs first, which must not change the values of patient 1
+            backwardGenerator.generate(2, collect(new ArrayList<>()));
+            backwardGenerator.generate(1, collect(backward));
+        }
+        assertEquals(forward, backward);
+    }
+
+    private static OutputStrategy collect(List<Double> values) {
+        return new OutputStrategy() {
+            @Override
+            public void output(int patientId, long timestamp, String label, String data) {
+            }
+
+            @Override
+            public void output(int patientId, long timestamp, int metricId, double value) {
+                values.add(value);
+            }
+        };
+    }
+}
@@ -0,0 +1,36 @@
+package cardio_generator;
+
+import com.cardio_generator.TickScheduler;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TickSchedulerTest {
+
+    @Test
+    void testEveryPatientIsGeneratedOncePerPeriod() throws InterruptedException {
+        int patientCount = 2000;
+        int[] patientIds = new int[patientCount];
+        for (int i = 0; i < patientCount; i++) {
+            patientIds[i] = i;
+        }
+        AtomicIntegerArray runs = new AtomicIntegerArray(patientCount);
+
+        TickScheduler scheduler = new TickScheduler(2, (patientId, timestamp, label, data) -> { });
+        scheduler.schedule((patientId, outputStrategy) -> runs.incrementAndGet(patientId), patientIds, 1,
+                TimeUnit.SECONDS, new Random(42));
+        scheduler.start();
+        Thread.sleep(1500);
+        scheduler.shutdown();
+        assertTrue(scheduler.awaitTermination(5, TimeUnit.SECONDS));
+
+        // Within one and a half periods every patient runs once or twice
+        for (int i = 0; i < patientCount; i++) {
+            assertTrue(runs.get(i) >= 1 && runs.get(i) <= 2, "patient " + i + " ran " + runs.get(i) + " times");
+        }
+    }
+}
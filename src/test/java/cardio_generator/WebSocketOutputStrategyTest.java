@@ -0,0 +1,55 @@
+package cardio_generator;
+
+import com.cardio_generator.outputs.WebSocketOutputStrategy;
+import com.data_management.DataStorage;
+import com.data_management.PatientRecord;
+import com.data_management.WebSocketClient;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WebSocketOutputStrategyTest {
+
+    @Test
+    void testBatchedBinaryFramesAndTextFramesAreDecoded() throws Exception {
+        WebSocketOutputStrategy output = new WebSocketOutputStrategy(0, 20);
+        DataStorage dataStorage = new DataStorage();
+        WebSocketClient client = new WebSocketClient(dataStorage);
+        try {
+            awaitPort(output);
+            client.connect("ws://localhost:" + output.getPort());
+            for (int i = 0; i < 500; i++) {
+                output.output(1, 1000 + i, "Saturation", (90 + i % 10) + "%");
+            }
+            output.output(1, 2000, "Custom", "42"); // not a known metric, sent as text
+
+            long deadline = System.currentTimeMillis() + 5000;
+            List<PatientRecord> records = dataStorage.getRecords(1, 0, Long.MAX_VALUE);
+            while (records.size() < 501 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+                records = dataStorage.getRecords(1, 0, Long.MAX_VALUE);
+            }
+
+            assertEquals(501, records.size());
+            for (int i = 0; i < 500; i++) {
+                assertEquals(1000 + i, records.get(i).getTimestamp());
+                assertEquals("Saturation", records.get(i).getRecordType());
+                assertEquals(90 + i % 10, records.get(i).getMeasurementValue());
+            }
+            assertEquals("Custom", records.get(500).getRecordType());
+            assertEquals(42.0, records.get(500).getMeasurementValue());
+        } finally {
+            client.close();
+            output.stop();
+        }
+    }
+
+    private static void awaitPort(WebSocketOutputStrategy output) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (output.getPort() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10); // the server binds on its own thread
+        }
+    }
+}
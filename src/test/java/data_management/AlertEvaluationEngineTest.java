@@ -0,0 +1,67 @@
+package data_management;
+
+import com.alerts.Alert;
+import com.alerts.AlertEvaluationEngine;
+import com.alerts.AlertGenerator;
+import com.alerts.AlertStore;
+import com.alerts.EvaluationCycle;
+import com.data_management.DataStorage;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlertEvaluationEngineTest {
+
+    @Test
+    void testEvaluateAllPatients() {
+        DataStorage storage = new DataStorage();
+        for (int patientId = 1; patientId <= 1000; patientId++) {
+            storage.addPatientData(patientId, 115, "ECG", 1621453100); // abnormal heart rate alert
+            storage.addPatientData(patientId, 97, "Saturation", 1621453100);
+        }
+        storage.addPatientData(7, 90, "Saturation", 1621453200); // low saturation alert
+
+        AlertGenerator alertGenerator = new AlertGenerator(storage);
+        try (AlertEvaluationEngine engine = new AlertEvaluationEngine(alertGenerator, storage, 4)) {
+            EvaluationCycle cycle = engine.evaluateAll();
+
+            assertEquals(1000, cycle.getPatientCount());
+            assertEquals(1001, cycle.getAlertCount());
+            assertEquals(cycle, engine.getLastCycle());
+        }
+        assertEquals(1001, alertGenerator.getAlertCount());
+        assertEquals(2, alertGenerator.getAlertsByPatientId("7").size());
+    }
+
+    @Test
+    void testFailedSweepsAreRecordedAndScheduleKeepsRunning() throws InterruptedException {
+        DataStorage storage = new DataStorage();
+        storage.addPatientData(1, 115, "ECG", 1621453100);
+        AtomicInteger attempts = new AtomicInteger();
+        AlertStore failingStore = new AlertStore() {
+            @Override
+            public void addAll(List<Alert> alerts) {
+                attempts.incrementAndGet();
+                throw new IllegalStateException("store unavailable");
+            }
+        };
+
+        try (AlertEvaluationEngine engine = new AlertEvaluationEngine(new AlertGenerator(storage, failingStore),
+                storage, 2)) {
+            engine.start(20, TimeUnit.MILLISECONDS);
+            for (int attempt = 0; attempt < 100 && attempts.get() < 3; attempt++) {
+                Thread.sleep(20);
+            }
+            assertTrue(attempts.get() >= 3, "the schedule stopped after " + attempts.get() + " sweeps");
+            EvaluationCycle cycle = engine.getLastCycle();
+            assertNotNull(cycle.getFailure());
+            assertTrue(cycle.toString().contains("store unavailable"));
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package data_management;
 
 import com.alerts.Alert;
+import com.alerts.AlertCondition;
+import com.alerts.AlertDeduplicator;
 import com.alerts.AlertGenerator;
 import com.data_management.DataStorage;
 import com.data_management.OutputFileDataReader;
@@ -12,6 +14,7 @@ import java.io.IOException;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class AlertGeneratorTest {
@@ -43,8 +46,10 @@ class AlertGeneratorTest {
         patient2.addRecord(90, "Saturation", 1621453700); // Hypoxemic condition
 
         // Add irregular ECG data to patient 2
+        // Beat intervals are measured between ECG readings only, so two intervals are needed
         patient2.addRecord(0.8, "ECG", 10000);
-        patient2.addRecord(1.2, "ECG", 12000); // Expected to trigger an irregular beat alert
+        patient2.addRecord(1.2, "ECG", 12000);
+        patient2.addRecord(1.0, "ECG", 15000); // Expected to trigger an irregular beat alert
 
         patient2.addRecord(70,"DiastolicPressure", 1621453500);
         patient2.addRecord(90,"DiastolicPressure", 1621453600);
@@ -58,7 +63,7 @@ class AlertGeneratorTest {
         alertGenerator.evaluateData(patient2);
 
         // Check total number of alerts generated
-        assertEquals(15, alertGenerator.getAlertCount(), "Total alerts generated should match the expected amount.");
+        assertEquals(17, alertGenerator.getAlertCount(), "Total alerts generated should match the expected amount.");
 
         // Check for alerts
         List<Alert> patientAlerts = alertGenerator.getAlertsByPatientId("1");
@@ -79,4 +84,105 @@ class AlertGeneratorTest {
                 .anyMatch(alert -> alert.getCondition().equals("Trend Alert: Diastolic Blood Pressure Trend Detected [Priority: High]")));
 
     }
+
+    @Test
+    void testIncrementalEvaluation() {
+        DataStorage storage = new DataStorage();
+        AlertGenerator alertGenerator = new AlertGenerator(storage);
+        alertGenerator.enableIncrementalEvaluation();
+
+        storage.addPatientData(1, 170, "SystolicPressure", 1621453100);
+        storage.addPatientData(1, 150, "SystolicPressure", 1621453200);
+        storage.addPatientData(1, 120, "SystolicPressure", 1621453300); // trend alert
+        storage.addPatientData(1, 90, "Saturation", 1621453200); // low saturation alert
+        storage.addPatientData(1, 75, "ECG", 1621453100);
+        assertEquals(2, alertGenerator.getAlertCount());
+
+        // A new reading only evaluates that reading, earlier alerts are not repeated
+        storage.addPatientData(1, 115, "ECG", 1621453400);
+        List<Alert> alerts = alertGenerator.getAlertsByPatientId("1");
+        assertEquals(3, alerts.size());
+        assertEquals("Trend Alert: Systolic Blood Pressure Trend Detected [Priority: High]", alerts.get(0).getCondition());
+        assertEquals("Low Saturation Alert: Blood Saturation Level Too Low [Priority: High]", alerts.get(1).getCondition());
+        assertEquals("Abnormal Heart Rate Alert: Heart Rate Out of Range [Priority: High]", alerts.get(2).getCondition());
+
+        // Ten saturation readings falling by five points trigger one rapid drop alert
+        for (int i = 0; i < 10; i++) {
+            storage.addPatientData(2, 99 - i * 0.6, "Saturation", 1621453600 + i * 60);
+        }
+        assertEquals(1, alertGenerator.getAlertsByPatientId("2").size());
+    }
+
+    @Test
+    void testLateHeartbeatDoesNotRaiseIrregularBeat() {
+        DataStorage storage = new DataStorage();
+        AlertGenerator alertGenerator = new AlertGenerator(storage);
+        alertGenerator.enableIncrementalEvaluation();
+
+        for (long timestamp = 1000; timestamp <= 4000; timestamp += 1000) {
+            storage.addPatientData(1, 75, "ECG", timestamp);
+        }
+        storage.addPatientData(1, 75, "ECG", 3500); // late, between two regular beats
+        storage.addPatientData(1, 75, "ECG", 5000);
+
+        assertEquals(0, alertGenerator.getAlertCount());
+    }
+
+    @Test
+    void testRemovedPatientStartsFresh() {
+        DataStorage storage = new DataStorage();
+        AlertGenerator alertGenerator = new AlertGenerator(storage);
+        alertGenerator.enableIncrementalEvaluation();
+
+        storage.addPatientData(1, 170, "SystolicPressure", 1621453100);
+        storage.addPatientData(1, 150, "SystolicPressure", 1621453200);
+        assertTrue(storage.removePatient(1));
+        assertFalse(storage.removePatient(1));
+
+        // Would complete a trend with the readings of the removed patient
+        storage.addPatientData(1, 120, "SystolicPressure", 1621453300);
+        assertEquals(0, alertGenerator.getAlertCount());
+        assertEquals(1, storage.getRecords(1, 0, Long.MAX_VALUE).size());
+    }
+
+    @Test
+    void testRepeatedEvaluationDoesNotRepeatAlerts() {
+        Patient patient = new Patient(1);
+        patient.addRecord(115, "ECG", 1000);
+        patient.addRecord(91, "Saturation", 1000);
+        patient.addRecord(90, "Saturation", 2000);
+        patient.addRecord(89, "Saturation", 90000);
+
+        AlertGenerator alertGenerator = new AlertGenerator(new DataStorage());
+        alertGenerator.getDeduplicator()
+                .setSuppressionWindow("Low Saturation Alert: Blood Saturation Level Too Low", 60000);
+        alertGenerator.evaluateData(patient);
+        alertGenerator.evaluateData(patient);
+
+        // One heart rate alert, and low saturation at 1000 and 90000; the one at 2000 is suppressed
+        assertEquals(3, alertGenerator.getAlertCount());
+
+        patient.addRecord(120, "ECG", 3000);
+        alertGenerator.evaluateData(patient);
+        assertEquals(4, alertGenerator.getAlertCount());
+    }
+
+    @Test
+    void testDeduplicatorMemoryStaysBounded() {
+        AlertDeduplicator deduplicator = new AlertDeduplicator();
+        deduplicator.setSuppressionWindow(AlertCondition.LOW_SATURATION, 5000);
+        for (long timestamp = 0; timestamp < 1_000_000; timestamp += 1000) {
+            // Out of range ECG fires on every reading, as with the simulator's ECG values
+            deduplicator.accept(new Alert("1", AlertCondition.ABNORMAL_HEART_RATE, timestamp));
+            deduplicator.accept(new Alert("1", AlertCondition.LOW_SATURATION, timestamp));
+        }
+        assertTrue(deduplicator.getRememberedFirings() <= 200, "remembered " + deduplicator.getRememberedFirings());
+
+        // Recent and long past firings are still recognized as repeats
+        assertFalse(deduplicator.accept(new Alert("1", AlertCondition.ABNORMAL_HEART_RATE, 999_000)));
+        assertFalse(deduplicator.accept(new Alert("1", AlertCondition.ABNORMAL_HEART_RATE, 1000)));
+        assertTrue(deduplicator.accept(new Alert("1", AlertCondition.ABNORMAL_HEART_RATE, 1_000_000)));
+        // The window still applies to the newest accepted alert, at 995000
+        assertFalse(deduplicator.accept(new Alert("1", AlertCondition.LOW_SATURATION, 999_500)));
+    }
 }
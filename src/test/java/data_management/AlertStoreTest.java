@@ -0,0 +1,59 @@
+package data_management;
+
+import com.alerts.Alert;
+import com.alerts.AlertStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AlertStoreTest {
+
+    @Test
+    void testTimeRangeAndPagination() {
+        AlertStore store = new AlertStore();
+        store.add(new Alert("1", "Late", 3000));
+        store.add(new Alert("1", "Early", 1000));
+        store.add(new Alert("2", "Other patient", 2000));
+        store.add(new Alert("1", "Middle", 2000));
+        store.add(new Alert("1", "Middle again", 2000));
+
+        assertEquals(5, store.size());
+        assertEquals("Late", store.getAlerts("1").get(0).getCondition()); // arrival order
+
+        List<Alert> range = store.getAlerts("1", 1000, 2000, 0, 10); // sorted by time
+        assertEquals(3, range.size());
+        assertEquals("Early", range.get(0).getCondition());
+        assertEquals("Middle", range.get(1).getCondition());
+        assertEquals("Middle again", range.get(2).getCondition());
+
+        List<Alert> page = store.getAlerts("1", 0, Long.MAX_VALUE, 2, 2);
+        assertEquals(2, page.size());
+        assertEquals("Middle again", page.get(0).getCondition());
+        assertEquals("Late", page.get(1).getCondition());
+
+        assertEquals(0, store.getAlerts("1", 0, Long.MAX_VALUE, 10, 2).size());
+        assertEquals(0, store.getAlerts("3").size());
+        assertEquals("Other patient", store.getAllAlerts().get(2).getCondition());
+    }
+
+    @Test
+    void testRetentionEvictsOldestAlerts() {
+        AlertStore store = new AlertStore(3);
+        for (int i = 0; i < 20; i++) {
+            store.add(new Alert("1", "Alert " + i, 20 - i)); // newer alerts have earlier timestamps
+        }
+        store.add(new Alert("2", "Other patient", 0));
+
+        assertEquals(4, store.size());
+        List<Alert> alerts = store.getAlerts("1");
+        assertEquals(3, alerts.size());
+        assertEquals("Alert 17", alerts.get(0).getCondition());
+
+        List<Alert> range = store.getAlerts("1", 0, 100, 0, 10);
+        assertEquals(3, range.size());
+        assertEquals("Alert 19", range.get(0).getCondition());
+        assertEquals("Alert 17", range.get(2).getCondition());
+    }
+}
@@ -0,0 +1,79 @@
+package data_management;
+
+import com.cardio_generator.outputs.BinarySegmentOutputStrategy;
+import com.data_management.BinarySegmentDataReader;
+import com.data_management.DataStorage;
+import com.data_management.PatientRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BinarySegmentDataReaderTest {
+
+    @TempDir
+    Path segmentDirectory;
+
+    @Test
+    void testReadSegmentsWrittenBySimulatorOutput() throws IOException {
+        // Small segments, so the data is spread over several files
+        BinarySegmentOutputStrategy output = new BinarySegmentOutputStrategy(segmentDirectory.toString(), 1000);
+        for (int i = 0; i < 100; i++) {
+            output.output(1, 1621453200L + i, "ECG", Double.toString(i * 0.5));
+        }
+        output.output(2, 1621453500L, "Saturation", "95.0%");
+        output.output(2, 1621453600L, "Alert", "triggered");
+        output.close();
+
+        DataStorage storage = new DataStorage();
+        new BinarySegmentDataReader(segmentDirectory.toString()).readData(storage);
+
+        List<PatientRecord> recordsP1 = storage.getRecords(1, 0, Long.MAX_VALUE);
+        assertEquals(100, recordsP1.size());
+        assertEquals(49.5, recordsP1.get(99).getMeasurementValue());
+        assertEquals("ECG", recordsP1.get(99).getRecordType());
+
+        List<PatientRecord> recordsP2 = storage.getRecords(2, 0, Long.MAX_VALUE);
+        assertEquals(95.0, recordsP2.get(0).getMeasurementValue());
+        assertEquals("Alert", recordsP2.get(1).getRecordType());
+        assertEquals(1.0, recordsP2.get(1).getMeasurementValue());
+    }
+
+    @Test
+    void testIdleOutputIsWrittenWithinASecond() throws Exception {
+        BinarySegmentOutputStrategy output = new BinarySegmentOutputStrategy(segmentDirectory.toString());
+        output.output(1, 1621453200L, "ECG", "0.5"); // far from filling the buffer, and nothing follows
+        Thread.sleep(1500);
+
+        DataStorage storage = new DataStorage();
+        new BinarySegmentDataReader(segmentDirectory.toString()).readData(storage);
+        assertEquals(1, storage.getRecords(1, 0, Long.MAX_VALUE).size());
+        output.close();
+    }
+
+    @Test
+    void testOutputAfterCloseIsDropped() throws IOException {
+        BinarySegmentOutputStrategy output = new BinarySegmentOutputStrategy(segmentDirectory.toString());
+        output.output(1, 1621453200L, "ECG", "0.5");
+        output.close();
+        // More than a full buffer, which would otherwise start a new segment
+        for (int i = 0; i < 5000; i++) {
+            output.output(1, 1621453201L + i, "ECG", "0.5");
+        }
+        output.close();
+
+        assertEquals(5000, output.getDroppedSamples());
+        try (Stream<Path> segments = Files.list(segmentDirectory)) {
+            assertEquals(1, segments.count());
+        }
+        DataStorage storage = new DataStorage();
+        new BinarySegmentDataReader(segmentDirectory.toString()).readData(storage);
+        assertEquals(1, storage.getRecords(1, 0, Long.MAX_VALUE).size());
+    }
+}
@@ -0,0 +1,77 @@
+package data_management;
+
+import com.data_management.DataStorage;
+import com.data_management.Patient;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DataStorageConcurrencyTest {
+
+    private static final int PATIENT_COUNT = 64;
+    private static final int RECORDS_PER_WRITER = 5_000;
+
+    @Test
+    void testConcurrentWritersAndReaders() throws Exception {
+        // 1, 4 and 16 writer threads while a reader keeps querying; DataStorageBenchmark measures throughput
+        for (int writers : new int[] {1, 4, 16}) {
+            DataStorage storage = new DataStorage();
+            runWriters(storage, writers);
+
+            long stored = 0;
+            for (Patient patient : storage.getAllPatients()) {
+                stored += patient.getAllRecords().size();
+            }
+            assertEquals((long) writers * RECORDS_PER_WRITER, stored, "No record may be lost");
+        }
+    }
+
+    private void runWriters(DataStorage storage, int writers) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            List<Future<?>> writerTasks = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                writerTasks.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < RECORDS_PER_WRITER; i++) {
+                        int patientId = (writer * 31 + i) % PATIENT_COUNT + 1;
+                        storage.addPatientData(patientId, i, i % 2 == 0 ? "ECG" : "Saturation", 1000L + i);
+                    }
+                    return null;
+                }));
+            }
+            Future<?> reader = executor.submit(() -> {
+                start.await();
+                while (writing.get()) {
+                    for (Patient patient : storage.getAllPatients()) {
+                        patient.getRecords(1000L, 1000L + RECORDS_PER_WRITER);
+                    }
+                }
+                return null;
+            });
+
+            start.countDown();
+            for (Future<?> task : writerTasks) {
+                task.get();
+            }
+            writing.set(false);
+            reader.get(); // rethrows a ConcurrentModificationException if reads were unsafe
+        } finally {
+            executor.shutdownNow();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+    }
+}
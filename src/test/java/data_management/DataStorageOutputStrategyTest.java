@@ -0,0 +1,73 @@
+package data_management;
+
+import com.alerts.Alert;
+import com.alerts.AlertCondition;
+import com.alerts.AlertGenerator;
+import com.cardio_generator.outputs.BinarySegmentFormat;
+import com.data_management.DataStorage;
+import com.data_management.DataStorageOutputStrategy;
+import com.data_management.Patient;
+import com.data_management.PatientRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DataStorageOutputStrategyTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int SAMPLES_PER_PRODUCER = 20_000;
+
+    @Test
+    void testConcurrentProducersLoseNothing() throws Exception {
+        DataStorage storage = new DataStorage();
+        // A small queue, so producers regularly have to wait for the ingest thread
+        DataStorageOutputStrategy output = new DataStorageOutputStrategy(storage, 64);
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            int patientId = p + 1;
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < SAMPLES_PER_PRODUCER; i++) {
+                    output.output(patientId, i, BinarySegmentFormat.ECG, i);
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        output.close();
+
+        assertEquals((long) PRODUCERS * SAMPLES_PER_PRODUCER, output.getIngestedCount());
+        assertEquals(PRODUCERS, storage.getAllPatients().size());
+        for (Patient patient : storage.getAllPatients()) {
+            List<PatientRecord> records = patient.getAllRecords();
+            assertEquals(SAMPLES_PER_PRODUCER, records.size());
+            // Readings of one producer keep their order
+            for (int i = 0; i < records.size(); i++) {
+                assertEquals(i, records.get(i).getTimestamp());
+            }
+        }
+    }
+
+    @Test
+    void testIncrementalAlertsFromTextOutput() {
+        DataStorage storage = new DataStorage();
+        AlertGenerator alertGenerator = new AlertGenerator(storage);
+        alertGenerator.enableIncrementalEvaluation();
+        try (DataStorageOutputStrategy output = new DataStorageOutputStrategy(storage)) {
+            output.output(1, 1000, "Saturation", "91%");
+            output.output(1, 2000, "Saturation", "not a number"); // reported and skipped
+        }
+
+        List<PatientRecord> records = storage.getRecords(1, 0, Long.MAX_VALUE);
+        assertEquals(1, records.size());
+        assertEquals(91.0, records.get(0).getMeasurementValue());
+        List<Alert> alerts = alertGenerator.getAlertsByPatientId("1");
+        assertEquals(1, alerts.size());
+        assertEquals(AlertCondition.LOW_SATURATION, alerts.get(0).getConditionCode());
+    }
+}
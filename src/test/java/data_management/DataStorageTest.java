@@ -4,7 +4,10 @@ import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.Test;
 
 import com.data_management.DataStorage;
+import com.data_management.MetricRegistry;
 import com.data_management.PatientRecord;
+import com.data_management.RetentionPolicy;
+import com.data_management.SampleBatch;
 
 import java.util.List;
 
@@ -23,6 +26,89 @@ class DataStorageTest {
         assertEquals(100.0, records.get(0).getMeasurementValue()); // Validate first record
     }
 
+    @Test
+    void testAddBatchGroupsReadingsByPatient() {
+        DataStorage storage = new DataStorage();
+        List<String> notified = new java.util.ArrayList<>();
+        storage.addListener((patient, metricId, measurementValue, timestamp) ->
+                notified.add(patient.getPatientId() + ":" + timestamp));
+
+        SampleBatch batch = new SampleBatch(2); // grows while filling
+        batch.add(2, 1000L, MetricRegistry.ECG, 0.5);
+        batch.add(1, 1000L, MetricRegistry.ECG, 0.1);
+        batch.add(2, 1001L, MetricRegistry.SATURATION, 97.0);
+        batch.add(1, 1001L, MetricRegistry.ECG, 0.2);
+        batch.add(3, 1000L, MetricRegistry.ECG, 0.9);
+        storage.addBatch(batch);
+
+        List<PatientRecord> records = storage.getRecords(1, 0L, Long.MAX_VALUE);
+        assertEquals(2, records.size());
+        assertEquals(0.1, records.get(0).getMeasurementValue());
+        assertEquals(0.2, records.get(1).getMeasurementValue());
+        records = storage.getRecords(2, 0L, Long.MAX_VALUE);
+        assertEquals(2, records.size());
+        assertEquals("Saturation", records.get(1).getRecordType());
+        assertEquals(1, storage.getRecords(3, 0L, Long.MAX_VALUE).size());
+        // Listeners see each patient's readings together and in batch order
+        assertEquals(List.of("1:1000", "1:1001", "2:1000", "2:1001", "3:1000"), notified);
+
+        batch.clear();
+        assertTrue(batch.isEmpty());
+    }
+
+    @Test
+    void testCompactionRollsUpOldReadings() {
+        DataStorage storage = new DataStorage();
+        // Raw readings for 10 s, 1 s rollups for 60 s, 10 s rollups for 300 s
+        storage.setRetentionPolicy("ECG", new RetentionPolicy(10_000)
+                .withTier(1_000, 60_000)
+                .withTier(10_000, 300_000));
+        for (long t = 0; t < 400_000; t += 250) { // 4 readings per second
+            storage.addPatientData(1, t % 1000 / 250, "ECG", t); // values 0, 1, 2, 3 within each second
+            storage.addPatientData(1, 1, "Saturation", t); // no policy, kept as is
+        }
+        storage.compact();
+
+        List<PatientRecord> ecg = storage.getRecords(1, 0, Long.MAX_VALUE).stream()
+                .filter(record -> record.getRecordType().equals("ECG"))
+                .collect(java.util.stream.Collectors.toList());
+        long latest = 399_750;
+        // Older than 300 s is discarded; 10 s buckets up to 60 s; 1 s buckets up to 10 s; then raw readings
+        assertEquals(100_000, ecg.get(0).getTimestamp());
+        assertEquals(24 + 50 + 41, ecg.size());
+        assertEquals(330_000, ecg.get(23).getTimestamp());
+        assertEquals(340_000, ecg.get(24).getTimestamp());
+        assertEquals(1_000, ecg.get(25).getTimestamp() - ecg.get(24).getTimestamp());
+        assertEquals(latest - 10_000, ecg.get(74).getTimestamp());
+        assertEquals(latest, ecg.get(114).getTimestamp());
+        assertEquals(1.5, ecg.get(0).getMeasurementValue()); // mean of 0, 1, 2, 3
+        assertEquals(1.5, ecg.get(24).getMeasurementValue());
+
+        // A range inside the raw period still returns every raw reading
+        assertEquals(2 * 8, storage.getRecords(1, latest - 1_750, latest).size());
+        assertEquals(1_600 + 41, storage.getAllPatients().get(0).getAllRecords().size()); // saturation and raw ECG
+    }
+
+    @Test
+    void testLateReadingGoesIntoRollups() {
+        DataStorage storage = new DataStorage();
+        // Raw readings for 10 s, 1 s rollups for 60 s
+        storage.setRetentionPolicy("ECG", new RetentionPolicy(10_000).withTier(1_000, 60_000));
+        for (long t = 0; t < 30_000; t += 500) {
+            storage.addPatientData(1, 2, "ECG", t);
+        }
+        storage.compact(); // raw from 19_500, 1 s buckets from 0 to 19_000
+        assertEquals(20 + 21, storage.getRecords(1, 0, Long.MAX_VALUE).size());
+
+        storage.addPatientData(1, 5, "ECG", 5_200); // late, from the rolled up period
+        List<PatientRecord> records = storage.getRecords(1, 0, Long.MAX_VALUE);
+        assertEquals(20 + 21, records.size()); // still every bucket, none hidden by the late reading
+        assertEquals(5_000, records.get(5).getTimestamp());
+        assertEquals(3.0, records.get(5).getMeasurementValue()); // mean of 2, 2 and 5
+        assertEquals(19_000, records.get(19).getTimestamp());
+        assertEquals(19_500, records.get(20).getTimestamp());
+    }
+
     @Test
     void testSingletonInstance() {
         DataStorage instance1 = DataStorage.getInstance();
@@ -0,0 +1,69 @@
+package data_management;
+
+import com.data_management.MessageParser;
+import com.data_management.MetricRegistry;
+import com.data_management.PatientRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MessageParserTest {
+
+    @Test
+    void testParseMessage() {
+        MessageParser parser = new MessageParser();
+        assertTrue(parser.parse(" 12, 1627848284 ,ECG, -0.3288552339824799"));
+        assertEquals(12, parser.getPatientId());
+        assertEquals(1627848284L, parser.getTimestamp());
+        assertSame("ECG", parser.getLabel()); // known labels are shared, not copied
+        assertEquals(MetricRegistry.ECG, parser.getMetricId());
+        assertEquals(-0.3288552339824799, parser.getMeasurementValue());
+
+        assertTrue(parser.parse("3,1627848285,CustomLabel,1e3"));
+        assertEquals("CustomLabel", parser.getLabel());
+        assertEquals(MetricRegistry.idOf("CustomLabel"), parser.getMetricId()); // registered on first use
+        assertTrue(parser.getMetricId() > MetricRegistry.ALERT);
+        assertEquals(1000.0, parser.getMeasurementValue());
+    }
+
+    @Test
+    void testRejectInvalidMessages() {
+        MessageParser parser = new MessageParser();
+        assertFalse(parser.parse(""));
+        assertFalse(parser.parse("unexpected,format"));
+        assertFalse(parser.parse("1,2,ECG,3,4"));
+        assertThrows(NumberFormatException.class, () -> parser.parse("1,1627848284,Saturation,98.0%"));
+        assertThrows(NumberFormatException.class, () -> parser.parse("x,1627848284,ECG,1.0"));
+    }
+
+    @Test
+    void testRejectLabelsTheRegistryDoesNotAccept() {
+        MessageParser parser = new MessageParser();
+        int registered = MetricRegistry.size();
+        assertFalse(parser.parse("1,1627848284," + "X".repeat(65) + ",1.0")); // longer than any metric label
+        assertFalse(parser.parse("1,1627848284, ,1.0"));
+        assertEquals(registered, MetricRegistry.size());
+
+        assertEquals(MetricRegistry.SYSTOLIC_PRESSURE, MetricRegistry.idOf("Label: SystolicPressure,", 7, 23));
+        assertThrows(IllegalArgumentException.class, () -> MetricRegistry.idOf(null));
+        assertThrows(IllegalArgumentException.class, () -> new PatientRecord(1, 1.0, (String) null, 1000));
+    }
+
+    @Test
+    void testValuesMatchDoubleParseDouble() {
+        MessageParser parser = new MessageParser();
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            double value = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(8));
+            String text = i % 2 == 0 ? Double.toString(value) : String.format("%.3f", value);
+            parser.parse("1,1," + "ECG," + text);
+            assertEquals(Double.parseDouble(text), parser.getMeasurementValue(), text);
+        }
+    }
+}
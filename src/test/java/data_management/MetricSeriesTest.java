@@ -0,0 +1,60 @@
+package data_management;
+
+import com.data_management.Patient;
+import com.data_management.PatientRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricSeriesTest {
+
+    @Test
+    void testRecordsSurviveChunkGrowth() {
+        Patient patient = new Patient(1);
+        // Enough readings to fill several chunks of the columnar series
+        for (int i = 0; i < 5000; i++) {
+            patient.addRecord(i, i % 2 == 0 ? "ECG" : "Saturation", 1000L + i);
+        }
+
+        List<PatientRecord> records = patient.getAllRecords();
+        assertEquals(5000, records.size());
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(1000L + i, records.get(i).getTimestamp()); // arrival order is kept across types
+            assertEquals(i, records.get(i).getMeasurementValue());
+        }
+        assertEquals("Saturation", records.get(4999).getRecordType());
+        assertEquals(2, patient.getRecords(1000L, 1001L).size());
+    }
+
+    @Test
+    void testLateRecordsAreQueriedInTimestampOrder() {
+        Patient patient = new Patient(1);
+        for (int i = 0; i < 3000; i++) {
+            patient.addRecord(i, "ECG", 10L * i);
+        }
+        patient.addRecord(-1, "ECG", 5L); // far behind, shifts records across every chunk
+        patient.addRecord(-2, "ECG", 29995L); // slightly late, the common case
+        patient.addRecord(-3, "Saturation", 15L);
+
+        List<PatientRecord> records = patient.getRecords(0L, 20L);
+        assertEquals(5, records.size());
+        assertEquals(0.0, records.get(0).getMeasurementValue());
+        assertEquals(-1.0, records.get(1).getMeasurementValue());
+        assertEquals(1.0, records.get(2).getMeasurementValue());
+        assertEquals(-3.0, records.get(3).getMeasurementValue());
+        assertEquals(2.0, records.get(4).getMeasurementValue());
+
+        List<PatientRecord> tail = patient.getRecords(29980L, Long.MAX_VALUE);
+        assertEquals(3, tail.size());
+        assertEquals(-2.0, tail.get(2).getMeasurementValue());
+
+        List<PatientRecord> all = patient.getRecords(Long.MIN_VALUE, Long.MAX_VALUE);
+        for (int i = 1; i < all.size(); i++) {
+            assertTrue(all.get(i - 1).getTimestamp() <= all.get(i).getTimestamp());
+        }
+        assertEquals(-3.0, patient.getAllRecords().get(3002).getMeasurementValue()); // arrival order is unchanged
+    }
+}
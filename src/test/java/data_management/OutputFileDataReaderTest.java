@@ -1,14 +1,26 @@
 package data_management;
 
+import com.alerts.Alert;
+import com.alerts.AlertCondition;
+import com.alerts.AlertGenerator;
+import com.cardio_generator.outputs.fileOutputStrategy;
 import com.data_management.DataStorage;
 import com.data_management.OutputFileDataReader;
 import com.data_management.PatientRecord;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class OutputFileDataReaderTest {
 
@@ -28,4 +40,72 @@ class OutputFileDataReaderTest {
         assertEquals(95.3, recordsP2.get(0).getMeasurementValue()); // Validate record of patient2
     }
 
-}
\ No newline at end of file
+    @Test
+    void testReadOutputDirectory(@TempDir Path outputDirectory) throws IOException {
+        // Written by the simulator's file output, one file per label
+        fileOutputStrategy output = new fileOutputStrategy(outputDirectory.toString());
+        output.output(1, 1621453200, "ECG", "0.54");
+        output.output(1, 1621453300, "Saturation", "97.0%");
+        output.output(2, 1621453400, "Alert", "triggered");
+
+        // Large enough to be split into several chunks
+        try (BufferedWriter writer = Files.newBufferedWriter(outputDirectory.resolve("Cholesterol.txt"))) {
+            for (int i = 0; i < 200_000; i++) {
+                writer.write("Patient ID: " + (i % 10 + 1) + ", Timestamp: " + (1621453200L + i)
+                        + ", Label: Cholesterol, Data: " + (150 + i % 50) + ".5\n");
+            }
+        }
+
+        DataStorage storage = new DataStorage();
+        new OutputFileDataReader("file:" + outputDirectory, 4).readData(storage);
+
+        assertEquals(0.54, storage.getRecords(1, 1621453200, 1621453200).stream()
+                .filter(record -> record.getRecordType().equals("ECG"))
+                .findFirst().get().getMeasurementValue());
+        assertEquals(97.0, storage.getRecords(1, 1621453300, 1621453300).stream()
+                .filter(record -> record.getRecordType().equals("Saturation"))
+                .findFirst().get().getMeasurementValue());
+        assertEquals(1.0, storage.getRecords(2, 1621453400, 1621453400).stream()
+                .filter(record -> record.getRecordType().equals("Alert"))
+                .findFirst().get().getMeasurementValue());
+
+        long cholesterolRecords = 0;
+        for (int patientId = 1; patientId <= 10; patientId++) {
+            cholesterolRecords += storage.getRecords(patientId, 0, Long.MAX_VALUE).stream()
+                    .filter(record -> record.getRecordType().equals("Cholesterol"))
+                    .count();
+        }
+        assertEquals(200_000, cholesterolRecords);
+    }
+
+    @Test
+    void testChunksReachListenersInOrder(@TempDir Path outputDirectory) throws IOException {
+        // Large enough to be split into several chunks; the first interval of patient 1 is irregular
+        Path file = outputDirectory.resolve("ECG.txt");
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("Patient ID: 1, Timestamp: 1621453195000, Label: ECG, Data: 75.0\n");
+            for (int i = 0; i < 200_000; i++) {
+                writer.write("Patient ID: " + (i % 10 + 1) + ", Timestamp: " + (1621453200000L + i * 100L)
+                        + ", Label: ECG, Data: 75.0\n");
+            }
+        }
+
+        DataStorage storage = new DataStorage();
+        AlertGenerator alertGenerator = new AlertGenerator(storage);
+        alertGenerator.enableIncrementalEvaluation();
+        Map<Integer, Long> latest = new ConcurrentHashMap<>();
+        AtomicInteger outOfOrder = new AtomicInteger();
+        storage.addListener((patient, metricId, measurementValue, timestamp) -> {
+            Long previous = latest.put(patient.getPatientId(), timestamp);
+            if (previous != null && previous > timestamp) {
+                outOfOrder.incrementAndGet();
+            }
+        });
+        new OutputFileDataReader("file:" + file, 4).readData(storage);
+
+        assertEquals(0, outOfOrder.get());
+        assertEquals(1, alertGenerator.getAlertCount()); // lost if the first chunk arrived after a later one
+        List<Alert> alerts = alertGenerator.getAlertsByPatientId("1");
+        assertTrue(alerts.get(0).getCondition().startsWith(AlertCondition.IRREGULAR_BEAT.getText()));
+    }
+}
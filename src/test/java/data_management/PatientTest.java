@@ -1,6 +1,8 @@
 package data_management;
 
 import com.data_management.DataStorage;
+import com.data_management.MetricRegistry;
+import com.data_management.MetricSeries;
 import com.data_management.Patient;
 import com.data_management.PatientRecord;
 import org.junit.jupiter.api.Test;
@@ -23,4 +25,58 @@ class PatientTest {
 
         assertEquals(2, patient1.getRecords(1621453200,1621453300).size()); // Validate if we do get 2 records
     }
+
+    @Test
+    void testGetSeries() {
+        Patient patient = new Patient(1);
+        patient.addRecord(80, "ECG", 2000);
+        patient.addRecord(97, "Saturation", 1500);
+        patient.addRecord(75, "ECG", 1000);
+
+        MetricSeries ecg = patient.getSeries(MetricRegistry.ECG);
+        patient.addRecord(90, "ECG", 3000); // not visible in the series taken before
+
+        assertEquals(2, ecg.size()); // only ECG readings, sorted by timestamp
+        assertEquals(1000, ecg.getTimestamp(0));
+        assertEquals(80, ecg.getValue(1));
+        assertEquals(3, patient.getSeries(MetricRegistry.ECG).size());
+        assertEquals(0, patient.getSeries(MetricRegistry.CHOLESTEROL).size());
+    }
+
+    @Test
+    void testSeriesSnapshotIgnoresLateReadings() {
+        Patient patient = new Patient(1);
+        for (int i = 0; i < 3000; i++) {
+            patient.addRecord(i, "ECG", i * 10L);
+        }
+        MetricSeries ecg = patient.getSeries(MetricRegistry.ECG);
+        patient.addRecord(-1, "ECG", 5); // late, shifts every later reading in the stored series
+
+        assertEquals(3000, ecg.size());
+        for (int i = 0; i < ecg.size(); i++) {
+            assertEquals(i, ecg.getValue(i));
+            assertEquals(i * 10L, ecg.getTimestamp(i));
+        }
+        MetricSeries updated = patient.getSeries(MetricRegistry.ECG);
+        assertEquals(3001, updated.size());
+        assertEquals(-1, updated.getValue(1));
+    }
+
+    @Test
+    void testSeriesSnapshotIgnoresLateReadingsAfterAppend() {
+        Patient patient = new Patient(1);
+        for (int i = 0; i < 10; i++) {
+            patient.addRecord(i, "ECG", 100 + i * 10L);
+        }
+        MetricSeries ecg = patient.getSeries(MetricRegistry.ECG);
+        patient.addRecord(10, "ECG", 500);
+        patient.addRecord(-1, "ECG", 105); // late, shifts readings the snapshot still reads
+
+        assertEquals(10, ecg.size());
+        for (int i = 0; i < ecg.size(); i++) {
+            assertEquals(i, ecg.getValue(i));
+            assertEquals(100 + i * 10L, ecg.getTimestamp(i));
+        }
+        assertEquals(12, patient.getSeries(MetricRegistry.ECG).size());
+    }
 }
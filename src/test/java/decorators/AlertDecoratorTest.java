@@ -1,7 +1,9 @@
 package decorators;
 
 import com.alerts.Alert;
+import com.alerts.AlertCondition;
 import com.alerts.AlertGenerator;
+import com.alerts.AlertPriority;
 import com.alerts.decorators.PriorityAlertDecorator;
 import com.alerts.decorators.RepeatedAlertDecorator;
 import com.data_management.DataStorage;
@@ -32,6 +34,17 @@ class AlertDecoratorTest {
         assertEquals("Blood Pressure Out of Range [Priority: High]", priorityAlert.getCondition());
     }
 
+    @Test
+    void testFlatAlertWithPriority() {
+        Alert alert = new Alert("1", AlertCondition.CRITICAL_THRESHOLD, 1000).withPriority(AlertPriority.HIGH);
+        assertEquals(AlertCondition.CRITICAL_THRESHOLD, alert.getConditionCode());
+        assertEquals("Critical Threshold Alert: Blood Pressure Out of Range [Priority: High]", alert.getCondition());
+
+        // Known condition texts are stored as their code
+        Alert fromText = new Alert("1", "Low Saturation Alert: Blood Saturation Level Too Low", 1000);
+        assertEquals(AlertCondition.LOW_SATURATION, fromText.getConditionCode());
+    }
+
     @Test
     void testAlertGeneratorWithDecorators() {
         Patient patient = new Patient(1);